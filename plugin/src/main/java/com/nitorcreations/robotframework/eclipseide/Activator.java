@@ -15,10 +15,22 @@
  */
 package com.nitorcreations.robotframework.eclipseide;
 
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import com.nitorcreations.robotframework.eclipseide.builder.parser.IndexFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
+import com.nitorcreations.robotframework.eclipseide.preferences.PreferenceConstants;
+
 /**
  * The activator class controls the plug-in life cycle
  */
@@ -30,6 +42,15 @@ public class Activator extends AbstractUIPlugin {
     // The shared instance
     private static Activator plugin;
 
+    private final IPropertyChangeListener parseCacheSizeListener = new IPropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent event) {
+            if (PreferenceConstants.P_PARSE_CACHE_SIZE.equals(event.getProperty())) {
+                updateParseCacheSize();
+            }
+        }
+    };
+
     /**
      * The constructor
      */
@@ -40,14 +61,40 @@ public class Activator extends AbstractUIPlugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        Trace.configure(isDebugging());
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(IndexFile.CACHE_INVALIDATOR, IResourceChangeEvent.POST_CHANGE);
+        updateParseCacheSize();
+        getPreferenceStore().addPropertyChangeListener(parseCacheSizeListener);
+        RobotFile.getOnDiskCache().restoreFrom(getParseCacheFile());
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        getPreferenceStore().removePropertyChangeListener(parseCacheSizeListener);
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(IndexFile.CACHE_INVALIDATOR);
+        try {
+            RobotFile.getOnDiskCache().saveTo(getParseCacheFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
         plugin = null;
         super.stop(context);
     }
 
+    /**
+     * @return the file the parsed files are saved in across restarts
+     */
+    private File getParseCacheFile() {
+        return getStateLocation().append("parse-cache").toFile();
+    }
+
+    private void updateParseCacheSize() {
+        int size = getPreferenceStore().getInt(PreferenceConstants.P_PARSE_CACHE_SIZE);
+        if (size > 0) {
+            RobotFile.getOnDiskCache().setCapacity(size);
+        }
+    }
+
     /**
      * Returns the shared instance
      * 
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+
+/**
+ * Tracks which robot files import which resource and variable files, so that changing a file re-validates the files
+ * that depend on it.
+ */
+class ImportDependencies {
+
+    private static final Map<IFile, Set<IFile>> IMPORTS = new HashMap<IFile, Set<IFile>>();
+    private static final Map<IFile, Set<IFile>> DEPENDENTS = new HashMap<IFile, Set<IFile>>();
+    /** The projects whose imports have been recorded since startup. */
+    private static final Set<IProject> TRACKED_PROJECTS = new HashSet<IProject>();
+
+    /**
+     * Marks the imports of the files in the given project as recorded from now on.
+     * 
+     * @return false if the imports were already recorded, e.g. by an earlier build since startup
+     */
+    static boolean track(IProject project) {
+        synchronized (IMPORTS) {
+            return TRACKED_PROJECTS.add(project);
+        }
+    }
+
+    /**
+     * Records the resource and variable files imported on the given lines of the given file.
+     */
+    static void update(IFile file, List<RobotLine> lines) {
+        Set<IFile> imports = new LinkedHashSet<IFile>();
+        for (RobotLine line : lines) {
+            if (line.isResourceSetting() || line.isVariableSetting()) {
+                String path = line.arguments.get(1).getUnescapedValue();
+                IFile importedFile = PluginContext.getResourceManager().getRelativeFile(file, path);
+                if (importedFile != null) {
+                    imports.add(importedFile);
+                }
+            }
+        }
+        synchronized (IMPORTS) {
+            removeImports(file);
+            IMPORTS.put(file, imports);
+            for (IFile importedFile : imports) {
+                Set<IFile> dependents = DEPENDENTS.get(importedFile);
+                if (dependents == null) {
+                    dependents = new LinkedHashSet<IFile>();
+                    DEPENDENTS.put(importedFile, dependents);
+                }
+                dependents.add(file);
+            }
+        }
+    }
+
+    /**
+     * Forgets the imports of the given file. The files importing it are still known to depend on it.
+     */
+    static void remove(IFile file) {
+        synchronized (IMPORTS) {
+            removeImports(file);
+        }
+    }
+
+    /**
+     * Forgets the imports of all files in the given project, e.g. before a full build.
+     */
+    static void remove(IProject project) {
+        synchronized (IMPORTS) {
+            for (IFile file : new ArrayList<IFile>(IMPORTS.keySet())) {
+                if (project.equals(file.getProject())) {
+                    removeImports(file);
+                }
+            }
+        }
+    }
+
+    private static void removeImports(IFile file) {
+        Set<IFile> oldImports = IMPORTS.remove(file);
+        if (oldImports == null) {
+            return;
+        }
+        for (IFile importedFile : oldImports) {
+            Set<IFile> dependents = DEPENDENTS.get(importedFile);
+            if (dependents != null) {
+                dependents.remove(file);
+                if (dependents.isEmpty()) {
+                    DEPENDENTS.remove(importedFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the files that import any of the given files directly or through other files, excluding the given files
+     *         themselves
+     */
+    static Set<IFile> getTransitiveDependents(Collection<IFile> files) {
+        Set<IFile> seen = new LinkedHashSet<IFile>(files);
+        Set<IFile> dependents = new LinkedHashSet<IFile>();
+        Deque<IFile> unprocessedFiles = new ArrayDeque<IFile>(files);
+        synchronized (IMPORTS) {
+            while (!unprocessedFiles.isEmpty()) {
+                Set<IFile> directDependents = DEPENDENTS.get(unprocessedFiles.removeFirst());
+                if (directDependents == null) {
+                    continue;
+                }
+                for (IFile dependent : directDependents) {
+                    if (seen.add(dependent)) {
+                        dependents.add(dependent);
+                        unprocessedFiles.add(dependent);
+                    }
+                }
+            }
+        }
+        return dependents;
+    }
+}
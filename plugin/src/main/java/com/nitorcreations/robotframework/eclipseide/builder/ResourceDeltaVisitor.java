@@ -15,6 +15,9 @@
  */
 package com.nitorcreations.robotframework.eclipseide.builder;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
@@ -23,8 +26,12 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.internal.util.ImportClosure;
+import com.nitorcreations.robotframework.eclipseide.internal.util.SymbolIndex;
 
 public class ResourceDeltaVisitor extends BaseResourceVisitor implements IResourceDeltaVisitor {
+    /** all files added, removed or changed, whether robot files or not */
+    protected final Set<IFile> changedFiles = new LinkedHashSet<IFile>();
 
     public ResourceDeltaVisitor(RobotBuilder robotBuilder, IProgressMonitor monitor) {
         super(robotBuilder, monitor);
@@ -33,20 +40,29 @@ public class ResourceDeltaVisitor extends BaseResourceVisitor implements IResour
     @Override
     public boolean visit(IResourceDelta delta) throws CoreException {
         IResource resource = delta.getResource();
+        if (resource instanceof IFile) {
+            changedFiles.add((IFile) resource);
+        }
         switch (delta.getKind()) {
         case IResourceDelta.ADDED:
             // handle added resource
-            this.robotBuilder.parse(visitedFiles, resource, monitor);
+            if (resource instanceof IFile) {
+                ImportClosure.fileAddedOrRemoved((IFile) resource);
+            }
+            this.robotBuilder.collect(visitedFiles, resource);
             break;
         case IResourceDelta.REMOVED:
             // handle removed resource
             if (resource instanceof IFile) {
                 RobotFile.erase((IFile) resource);
+                SymbolIndex.remove((IFile) resource);
+                ImportClosure.fileAddedOrRemoved((IFile) resource);
+                ImportDependencies.remove((IFile) resource);
             }
             break;
         case IResourceDelta.CHANGED:
             // handle changed resource
-            this.robotBuilder.parse(visitedFiles, resource, monitor);
+            this.robotBuilder.collect(visitedFiles, resource);
             break;
         }
         // return true to continue visiting children.
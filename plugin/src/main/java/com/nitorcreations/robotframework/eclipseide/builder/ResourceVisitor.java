@@ -27,7 +27,7 @@ public class ResourceVisitor extends BaseResourceVisitor implements IResourceVis
 
     @Override
     public boolean visit(IResource resource) {
-        this.robotBuilder.parse(visitedFiles, resource, monitor);
+        this.robotBuilder.collect(visitedFiles, resource);
         // return true to continue visiting children.
         return true;
     }
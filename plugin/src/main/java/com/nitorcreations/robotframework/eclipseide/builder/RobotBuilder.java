@@ -15,22 +15,40 @@
  */
 package com.nitorcreations.robotframework.eclipseide.builder;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 
 import com.nitorcreations.robotframework.eclipseide.Activator;
-import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.BuildTimings;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotParser;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.builder.util.DeferredMarkerManager;
+import com.nitorcreations.robotframework.eclipseide.builder.util.MarkerManager;
+import com.nitorcreations.robotframework.eclipseide.internal.util.SymbolIndex;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
+import com.nitorcreations.robotframework.eclipseide.preferences.PreferenceConstants;
 
 public class RobotBuilder extends IncrementalProjectBuilder {
 
@@ -38,6 +56,8 @@ public class RobotBuilder extends IncrementalProjectBuilder {
 
     public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".testProblem";
 
+    private static final int MAX_BUILD_THREADS = 16;
+
     @Override
     protected IProject[] build(int kind, Map<String, String> args, IProgressMonitor monitor) throws CoreException {
         if (kind == FULL_BUILD) {
@@ -54,36 +74,69 @@ public class RobotBuilder extends IncrementalProjectBuilder {
     }
 
     protected void fullBuild(final IProgressMonitor monitor) throws CoreException {
-        System.out.println("<full-build>");
+        if (Trace.BUILDER) {
+            Trace.trace("<full-build>");
+        }
+        ImportDependencies.remove(getProject());
+        ImportDependencies.track(getProject());
         ResourceVisitor visitor = new ResourceVisitor(this, monitor);
         getProject().accept(visitor);
-        updateProblems(visitor.visitedFiles, monitor);
-        System.out.println("</full-build>");
+        boolean parallel = Activator.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.P_PARALLEL_BUILD);
+        build(visitor.visitedFiles, Collections.<IFile> emptySet(), parallel, monitor);
+        if (Trace.BUILDER) {
+            Trace.trace("</full-build>");
+        }
     }
 
     protected void incrementalBuild(IResourceDelta delta, IProgressMonitor monitor) throws CoreException {
-        System.out.println("<incremental-build>");
+        if (Trace.BUILDER) {
+            Trace.trace("<incremental-build>");
+        }
         ResourceDeltaVisitor visitor = new ResourceDeltaVisitor(this, monitor);
         delta.accept(visitor);
-        updateProblems(visitor.visitedFiles, monitor);
-        System.out.println("</incremental-build>");
+        if (ImportDependencies.track(getProject())) {
+            restoreImportDependencies();
+        }
+        Set<IFile> dependentFiles = ImportDependencies.getTransitiveDependents(visitor.changedFiles);
+        dependentFiles.removeAll(visitor.visitedFiles);
+        build(visitor.visitedFiles, dependentFiles, false, monitor);
+        if (Trace.BUILDER) {
+            Trace.trace("</incremental-build>");
+        }
     }
 
     /**
-     * This is called for every resource that has changed (for example when
-     * saving a file or refreshing resources).
+     * Records the imports of all robot files in the project, as they are not known after a restart until the files are
+     * built again. Without them, changing a file would not re-validate the files that import it. Saved and cached parse
+     * results are used for files not modified since.
+     */
+    private void restoreImportDependencies() throws CoreException {
+        getProject().accept(new IResourceVisitor() {
+            @Override
+            public boolean visit(IResource resource) {
+                if (resource instanceof IFile && isRobotFile((IFile) resource)) {
+                    IFile file = (IFile) resource;
+                    List<RobotLine> lines = RobotFile.scan(file);
+                    if (lines != null) {
+                        ImportDependencies.update(file, lines);
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Adds the given resource to the files to build if it is a robot file.
      * 
      * @param resource
      *            the resource that changed
-     * @param monitor
-     *            progress monitor
      */
-    void parse(Set<IFile> visitedFiles, IResource resource, IProgressMonitor monitor) {
+    void collect(Set<IFile> visitedFiles, IResource resource) {
         if (!(resource instanceof IFile))
             return;
         IFile file = (IFile) resource;
-	String fileNameLc = file.getName().toLowerCase();
-        if (!(fileNameLc.endsWith(".txt") || fileNameLc.endsWith(".robot")) || file.getProjectRelativePath().toPortableString().startsWith("target/")) {
+        if (!isRobotFile(file)) {
             try {
                 file.deleteMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO);
             } catch (CoreException e) {
@@ -91,29 +144,170 @@ public class RobotBuilder extends IncrementalProjectBuilder {
             }
             return;
         }
-        System.out.println("Build resource " + resource);
+        visitedFiles.add(file);
+    }
+
+    private static boolean isRobotFile(IFile file) {
+        String fileNameLc = file.getName().toLowerCase();
+        return (fileNameLc.endsWith(".txt") || fileNameLc.endsWith(".robot")) && !file.getProjectRelativePath().toPortableString().startsWith("target/");
+    }
+
+    /**
+     * Parses and validates the given files, and then applies the resulting markers in a single workspace operation.
+     * 
+     * @param changedFiles
+     *            the files to parse and validate
+     * @param dependentFiles
+     *            the files to validate only, as their dependencies have changed
+     * @throws CoreException
+     *             if some of the files could not be built, after the markers of the rest have been applied
+     */
+    private void build(Set<IFile> changedFiles, Set<IFile> dependentFiles, boolean parallel, IProgressMonitor monitor) throws CoreException {
+        BuildTimings timings = new BuildTimings();
+        List<BuildTask> tasks = new ArrayList<BuildTask>(changedFiles.size() + dependentFiles.size());
+        for (IFile file : changedFiles) {
+            tasks.add(new BuildTask(file, true, timings, monitor));
+        }
+        for (IFile file : dependentFiles) {
+            tasks.add(new BuildTask(file, false, timings, monitor));
+        }
+        List<Throwable> failures = new ArrayList<Throwable>();
+        final List<DeferredMarkerManager> markerManagers;
+        if (parallel) {
+            markerManagers = parallelBuild(tasks, failures);
+            if (markerManagers == null) {
+                return;
+            }
+        } else {
+            markerManagers = new ArrayList<DeferredMarkerManager>(tasks.size());
+            for (BuildTask task : tasks) {
+                try {
+                    markerManagers.add(task.call());
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+        }
+        if (Trace.BUILDER) {
+            Trace.trace(" -- built " + timings);
+            Trace.trace(" -- parse cache " + RobotFile.getOnDiskCache());
+        }
+        if (monitor.isCanceled()) {
+            return;
+        }
+        getProject().getWorkspace().run(new IWorkspaceRunnable() {
+            @Override
+            public void run(IProgressMonitor monitor) throws CoreException {
+                for (DeferredMarkerManager markerManager : markerManagers) {
+                    markerManager.apply();
+                }
+            }
+        }, getProject(), IWorkspace.AVOID_UPDATE, monitor);
+        if (!failures.isEmpty()) {
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Parsing problem in " + failures.size() + " file(s)", failures.get(0)));
+        }
+    }
+
+    /**
+     * Runs the given build tasks on a pool of {@link #getBuildThreadCount()} threads.
+     * 
+     * @param failures
+     *            the list to add the exceptions of the failed tasks to
+     * @return the marker managers of the files built, or null if interrupted
+     */
+    private static List<DeferredMarkerManager> parallelBuild(List<BuildTask> tasks, List<Throwable> failures) {
+        ExecutorService pool = Executors.newFixedThreadPool(getBuildThreadCount());
         try {
-            RobotFile.parse(file, monitor);
-        } catch (Exception e1) {
-            // new Status(IStatus.WARNING, Activator.PLUGIN_ID,
-            // "Internal error", e1)
-            throw new RuntimeException("Parsing problem", e1);
+            return waitFor(pool.invokeAll(tasks), failures);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private final class BuildTask implements Callable<DeferredMarkerManager> {
+        private final IFile file;
+        private final boolean parse;
+        private final BuildTimings timings;
+        private final IProgressMonitor monitor;
+
+        BuildTask(IFile file, boolean parse, BuildTimings timings, IProgressMonitor monitor) {
+            this.file = file;
+            this.parse = parse;
+            this.timings = timings;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public DeferredMarkerManager call() {
+            DeferredMarkerManager markerManager = new DeferredMarkerManager(file);
+            buildFile(file, parse, markerManager, timings, monitor);
+            return markerManager;
         }
-        visitedFiles.add(file);
     }
 
-    private void updateProblems(Set<IFile> visitedFiles, IProgressMonitor monitor) {
-        System.out.println(" -- updating problems");
-        // TODO recursively add files that include the visited files to the
-        // visited files list
-        for (IFile file : visitedFiles) {
+    private static int getBuildThreadCount() {
+        return Math.max(1, Math.min(MAX_BUILD_THREADS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param failures
+     *            the list to add the exceptions of the failed tasks to
+     * @return the results of the tasks that completed successfully
+     */
+    private static <T> List<T> waitFor(List<Future<T>> futures, List<Throwable> failures) throws InterruptedException {
+        List<T> results = new ArrayList<T>(futures.size());
+        for (Future<T> future : futures) {
             try {
-                List<RobotLine> lines = RobotFile.get(file, false).getLines();
-                new RobotParser(file, lines, monitor).parse();
-            } catch (Exception e) {
-                e.printStackTrace();
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
             }
         }
+        return results;
+    }
+
+    /**
+     * The build pipeline of a single file: the file is read and parsed once, and the result is both cached and
+     * validated. Thread safe.
+     * 
+     * @param parse
+     *            true to parse the file, false to validate the cached parse result
+     */
+    private void buildFile(IFile file, boolean parse, MarkerManager markerManager, BuildTimings timings, IProgressMonitor monitor) {
+        if (monitor.isCanceled()) {
+            return;
+        }
+        if (Trace.BUILDER) {
+            Trace.trace("Build resource " + file);
+        }
+        RobotFile robotFile;
+        if (parse) {
+            robotFile = RobotFile.parse(file, monitor, timings);
+            long start = timings.start();
+            SymbolIndex.update(file, robotFile);
+            if (robotFile != null) {
+                ImportDependencies.update(file, robotFile.getLines());
+            } else {
+                ImportDependencies.remove(file);
+            }
+            timings.stop(BuildTimings.Stage.INDEX, start);
+        } else {
+            robotFile = RobotFile.get(file, false);
+        }
+        if (robotFile == null) {
+            return;
+        }
+        long start = timings.start();
+        try {
+            new RobotParser(file, robotFile.getLines(), monitor, markerManager).parse();
+        } catch (CoreException e) {
+            throw new RuntimeException("Parsing problem", e);
+        }
+        timings.stop(BuildTimings.Stage.VALIDATE, start);
+        timings.fileBuilt();
     }
 
 }
@@ -22,6 +22,7 @@ import org.eclipse.core.resources.IProjectNature;
 import org.eclipse.core.runtime.CoreException;
 
 import com.nitorcreations.robotframework.eclipseide.Activator;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 
 public class RobotNature implements IProjectNature {
 
@@ -47,7 +48,9 @@ public class RobotNature implements IProjectNature {
         newCommands[newCommands.length - 1] = command;
         desc.setBuildSpec(newCommands);
         project.setDescription(desc, null);
-        System.out.println("Robot Framework builder now active");
+        if (Trace.BUILDER) {
+            Trace.trace("Robot Framework builder now active");
+        }
     }
 
     @Override
@@ -62,7 +65,9 @@ public class RobotNature implements IProjectNature {
                 description.setBuildSpec(newCommands);
                 project.setDescription(description, null);
                 // TODO RFEBuilder.clearAllMarkers();
-                System.out.println("Robot Framework builder removed");
+                if (Trace.BUILDER) {
+                    Trace.trace("Robot Framework builder removed");
+                }
                 return;
             }
         }
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+
+import com.nitorcreations.robotframework.eclipseide.builder.util.DeferredMarker;
+import com.nitorcreations.robotframework.eclipseide.builder.util.MarkerManager;
+
+/**
+ * Collects the markers created while validating a file outside of an Eclipse workspace.
+ */
+public class CollectingMarkerManager implements MarkerManager {
+    private final List<DeferredMarker> markers = new ArrayList<DeferredMarker>();
+
+    @Override
+    public IMarker createMarker(String type) {
+        DeferredMarker marker = new DeferredMarker(type);
+        markers.add(marker);
+        return marker;
+    }
+
+    @Override
+    public void eraseMarkers() {
+        markers.clear();
+    }
+
+    public List<DeferredMarker> getMarkers() {
+        return markers;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+
+import com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.builder.util.MarkerManager;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
+/**
+ * Resolves the resource and variable files imported by robot files on the file system, the way
+ * {@link com.nitorcreations.robotframework.eclipseide.editors.IResourceManager#getRelativeFile(org.eclipse.core.resources.IFile, String)}
+ * does in the workspace. Thread safe; the existence of each file is only checked once.
+ */
+public class FileSystemImportResolver {
+    private final Map<File, Boolean> existingFiles = new ConcurrentHashMap<File, Boolean>();
+
+    /**
+     * @return the file, or null if it does not exist
+     */
+    public File getRelativeFile(File originalFile, String pathRelativeToOriginalFile) {
+        File file = new File(pathRelativeToOriginalFile);
+        if (!file.isAbsolute()) {
+            file = new File(originalFile.getAbsoluteFile().getParentFile(), pathRelativeToOriginalFile);
+        }
+        Boolean exists = existingFiles.get(file);
+        if (exists == null) {
+            exists = file.isFile();
+            existingFiles.put(file, exists);
+        }
+        return exists ? file : null;
+    }
+
+    /**
+     * Adds a warning for each resource and variable file import on the given lines that cannot be resolved. Imports
+     * with variables in their paths are not checked.
+     */
+    public void checkImports(File file, List<RobotLine> lines, MarkerManager markerManager) throws CoreException {
+        for (RobotLine line : lines) {
+            if (!(line.isResourceSetting() || line.isVariableSetting()) || line.arguments.size() < 2) {
+                continue;
+            }
+            ParsedString pathArgument = line.arguments.get(1);
+            String path = pathArgument.getUnescapedValue();
+            if (path.contains("${") || getRelativeFile(file, path) != null) {
+                continue;
+            }
+            IMarker marker = markerManager.createMarker(RobotBuilder.MARKER_TYPE);
+            marker.setAttribute(IMarker.MESSAGE, "Imported file not found: " + path);
+            marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+            marker.setAttribute(IMarker.LINE_NUMBER, line.lineNo + 1);
+            marker.setAttribute(IMarker.CHAR_START, pathArgument.getArgCharPos());
+            marker.setAttribute(IMarker.CHAR_END, pathArgument.getArgEndCharPos());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+
+import com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotParser;
+
+/**
+ * Runs the validation of {@link com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder} on the robot files
+ * of directories outside of an Eclipse workspace, e.g. in continuous integration. Files are validated in parallel,
+ * one task per file. In addition to the markers of {@link RobotParser}, imported resource and variable files that
+ * cannot be found are reported as warnings.
+ * <p>
+ * Usage: <code>java -cp &lt;plugin and Eclipse jars&gt; com.nitorcreations.robotframework.eclipseide.builder.headless.HeadlessValidator
+ * [--format json|junit] [--output file] [--charset charset] [--threads n] directory-or-file...</code>
+ * <p>
+ * The exit code is 0 if no errors were found, 1 if some were and 2 for invalid arguments.
+ */
+public class HeadlessValidator {
+
+    private final FileSystemImportResolver importResolver = new FileSystemImportResolver();
+    private final String charset;
+    private final int threads;
+
+    public HeadlessValidator(String charset, int threads) {
+        this.charset = charset;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReportFormat format = ReportFormat.JSON;
+        String output = null;
+        String charset = "UTF-8";
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<File> roots = new ArrayList<File>();
+        try {
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i].equals("--format")) {
+                    format = ReportFormat.valueOf(args[++i].toUpperCase());
+                } else if (args[i].equals("--output")) {
+                    output = args[++i];
+                } else if (args[i].equals("--charset")) {
+                    charset = args[++i];
+                } else if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+                } else {
+                    roots.add(new File(args[i]));
+                }
+            }
+            if (roots.isEmpty()) {
+                throw new IllegalArgumentException("No directories or files given");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: " + HeadlessValidator.class.getName() + " [--format json|junit] [--output file] [--charset charset] [--threads n] directory-or-file...");
+            System.exit(2);
+        }
+        List<ValidatedFile> results = new HeadlessValidator(charset, Math.max(1, threads)).validate(roots);
+        Writer out = new OutputStreamWriter(output == null ? System.out : new FileOutputStream(output), "UTF-8");
+        try {
+            format.write(results, out);
+        } finally {
+            if (output == null) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        }
+        for (ValidatedFile result : results) {
+            if (result.count(IMarker.SEVERITY_ERROR) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Validates the robot files in the given directories and their subdirectories, and the given files.
+     * 
+     * @return the results in the order of the files found
+     */
+    public List<ValidatedFile> validate(List<File> roots) throws InterruptedException {
+        List<Callable<ValidatedFile>> tasks = new ArrayList<Callable<ValidatedFile>>();
+        for (File root : roots) {
+            if (root.isDirectory()) {
+                collect(root, "", tasks);
+            } else {
+                tasks.add(newValidateTask(root, root.getPath().replace(File.separatorChar, '/')));
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ValidatedFile>> futures = pool.invokeAll(tasks);
+            List<ValidatedFile> results = new ArrayList<ValidatedFile>(futures.size());
+            for (Future<ValidatedFile> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Validation failed unexpectedly", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds a task for each robot file in the directory and its subdirectories, skipping hidden and Maven target
+     * directories like {@link com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder} does.
+     */
+    private void collect(File directory, String path, List<Callable<ValidatedFile>> tasks) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                if (!name.startsWith(".") && !name.equals("target")) {
+                    collect(file, path + name + '/', tasks);
+                }
+                continue;
+            }
+            String nameLc = name.toLowerCase();
+            if (nameLc.endsWith(".txt") || nameLc.endsWith(".robot")) {
+                tasks.add(newValidateTask(file, path + name));
+            }
+        }
+    }
+
+    private Callable<ValidatedFile> newValidateTask(final File file, final String path) {
+        return new Callable<ValidatedFile>() {
+            @Override
+            public ValidatedFile call() throws Exception {
+                try {
+                    return validate(file, path);
+                } catch (Exception e) {
+                    return failed(path, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Reports a file that could not be read or parsed as having a single error, so that it is not silently left out
+     * of the results.
+     */
+    private static ValidatedFile failed(String path, Exception e) throws CoreException {
+        StringBuilder message = new StringBuilder("Could not validate file");
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null) {
+                message.append(": ").append(t.getMessage());
+            }
+        }
+        CollectingMarkerManager markerManager = new CollectingMarkerManager();
+        IMarker marker = markerManager.createMarker(RobotBuilder.MARKER_TYPE);
+        marker.setAttribute(IMarker.MESSAGE, message.toString());
+        marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+        marker.setAttribute(IMarker.LINE_NUMBER, 1);
+        return new ValidatedFile(path, markerManager.getMarkers());
+    }
+
+    ValidatedFile validate(File file, String path) throws Exception {
+        CollectingMarkerManager markerManager = new CollectingMarkerManager();
+        RobotFile robotFile = RobotFile.parse(file, charset);
+        new RobotParser(file, robotFile.getLines(), markerManager).parse();
+        importResolver.checkImports(file, robotFile.getLines(), markerManager);
+        return new ValidatedFile(path, markerManager.getMarkers());
+    }
+}
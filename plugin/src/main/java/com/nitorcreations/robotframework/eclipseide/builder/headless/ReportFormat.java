@@ -0,0 +1,177 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+
+import com.nitorcreations.robotframework.eclipseide.builder.util.DeferredMarker;
+
+/**
+ * The output formats of {@link HeadlessValidator}.
+ */
+public enum ReportFormat {
+    /**
+     * An object with the total counts and the markers of each file having any.
+     */
+    JSON {
+        @Override
+        public void write(List<ValidatedFile> files, Writer out) throws IOException {
+            int errors = 0;
+            int warnings = 0;
+            out.write("{\n  \"files\": [");
+            String fileSeparator = "\n";
+            for (ValidatedFile file : files) {
+                errors += file.count(IMarker.SEVERITY_ERROR);
+                warnings += file.count(IMarker.SEVERITY_WARNING);
+                if (file.markers.isEmpty()) {
+                    continue;
+                }
+                out.write(fileSeparator);
+                fileSeparator = ",\n";
+                out.write("    {\"path\": " + jsonString(file.path) + ", \"markers\": [");
+                String markerSeparator = "\n";
+                for (DeferredMarker marker : file.markers) {
+                    out.write(markerSeparator);
+                    markerSeparator = ",\n";
+                    out.write("      {\"line\": " + marker.getAttribute(IMarker.LINE_NUMBER, 0));
+                    out.write(", \"charStart\": " + marker.getAttribute(IMarker.CHAR_START, 0));
+                    out.write(", \"charEnd\": " + marker.getAttribute(IMarker.CHAR_END, 0));
+                    out.write(", \"severity\": " + jsonString(getSeverityName(marker)));
+                    out.write(", \"message\": " + jsonString(marker.getAttribute(IMarker.MESSAGE, "")) + "}");
+                }
+                out.write("\n    ]}");
+            }
+            out.write("\n  ],\n");
+            out.write("  \"filesValidated\": " + files.size() + ",\n");
+            out.write("  \"errors\": " + errors + ",\n");
+            out.write("  \"warnings\": " + warnings + "\n}\n");
+        }
+    },
+    /**
+     * A JUnit XML test suite with one test case per file, failing if the file has errors.
+     */
+    JUNIT {
+        @Override
+        public void write(List<ValidatedFile> files, Writer out) throws IOException {
+            int failures = 0;
+            for (ValidatedFile file : files) {
+                if (file.count(IMarker.SEVERITY_ERROR) > 0) {
+                    ++failures;
+                }
+            }
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<testsuite name=\"robot-validation\" tests=\"" + files.size() + "\" failures=\"" + failures + "\" errors=\"0\">\n");
+            for (ValidatedFile file : files) {
+                int slash = file.path.lastIndexOf('/');
+                String className = slash < 0 ? "" : file.path.substring(0, slash).replace('/', '.');
+                out.write("  <testcase classname=\"" + xmlString(className) + "\" name=\"" + xmlString(file.path.substring(slash + 1)) + "\"");
+                if (file.markers.isEmpty()) {
+                    out.write("/>\n");
+                    continue;
+                }
+                out.write(">\n");
+                StringBuilder details = new StringBuilder();
+                for (DeferredMarker marker : file.markers) {
+                    details.append(file.path).append(':').append(marker.getAttribute(IMarker.LINE_NUMBER, 0)).append(": ");
+                    details.append(getSeverityName(marker)).append(": ").append(marker.getAttribute(IMarker.MESSAGE, "")).append('\n');
+                }
+                int errors = file.count(IMarker.SEVERITY_ERROR);
+                if (errors > 0) {
+                    out.write("    <failure message=\"" + errors + " error(s)\">" + xmlString(details.toString()) + "</failure>\n");
+                } else {
+                    out.write("    <system-out>" + xmlString(details.toString()) + "</system-out>\n");
+                }
+                out.write("  </testcase>\n");
+            }
+            out.write("</testsuite>\n");
+        }
+    };
+
+    public abstract void write(List<ValidatedFile> files, Writer out) throws IOException;
+
+    static String getSeverityName(DeferredMarker marker) {
+        switch (marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO)) {
+            case IMarker.SEVERITY_ERROR:
+                return "error";
+            case IMarker.SEVERITY_WARNING:
+                return "warning";
+            default:
+                return "info";
+        }
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                case '\\':
+                    sb.append('\\').append(ch);
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (ch < ' ') {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static String xmlString(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    if (ch < ' ' && ch != '\n' && ch != '\t') {
+                        sb.append(' ');
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+}
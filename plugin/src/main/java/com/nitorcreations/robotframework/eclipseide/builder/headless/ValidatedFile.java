@@ -0,0 +1,48 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+
+import com.nitorcreations.robotframework.eclipseide.builder.util.DeferredMarker;
+
+/**
+ * The markers found in one file by {@link HeadlessValidator}.
+ */
+public class ValidatedFile {
+    /**
+     * The path of the file relative to the validated directory, with '/' as the separator.
+     */
+    public final String path;
+    public final List<DeferredMarker> markers;
+
+    public ValidatedFile(String path, List<DeferredMarker> markers) {
+        this.path = path;
+        this.markers = markers;
+    }
+
+    public int count(int severity) {
+        int count = 0;
+        for (DeferredMarker marker : markers) {
+            if (marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO) == severity) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -22,6 +22,7 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
 
@@ -119,6 +120,105 @@ public class ArgumentPreParser {
         prepareNextLine();
     }
 
+    /**
+     * Determines the argument types of a modified file, whose lines outside the modified range still carry the
+     * argument types from before the modification. Parsing resumes from the last checkpoint line before the modified
+     * lines and stops at the first checkpoint line after them.
+     * 
+     * @param firstModifiedLine
+     *            the index of the first modified line
+     * @param firstUnmodifiedLine
+     *            the index of the first line after the modified lines whose line type did not change either
+     * @param hadGlobalTestTemplate
+     *            whether the file had a "Test Template" setting before the modification
+     * @see #isCheckpoint(RobotLine)
+     */
+    public void parseModified(int firstModifiedLine, int firstUnmodifiedLine, boolean hadGlobalTestTemplate) {
+        if (lines == null) {
+            // empty file
+            return;
+        }
+        lookForGlobalTestTemplate();
+        resumeParsing(firstModifiedLine, firstUnmodifiedLine, hadGlobalTestTemplate);
+    }
+
+    /**
+     * Like {@link #parseModified(int, int, boolean)}, for when it is already known whether the file has a "Test
+     * Template" setting after the modification, so that the lines need not be scanned for one.
+     * 
+     * @param hasGlobalTestTemplate
+     *            whether the file has a "Test Template" setting after the modification
+     */
+    public void parseModified(int firstModifiedLine, int firstUnmodifiedLine, boolean hadGlobalTestTemplate, boolean hasGlobalTestTemplate) {
+        if (lines == null) {
+            // empty file
+            return;
+        }
+        // only whether there is a template matters, not its line
+        globalTemplateAtLine = hasGlobalTestTemplate ? 0 : NO_TEMPLATE;
+        resumeParsing(firstModifiedLine, firstUnmodifiedLine, hadGlobalTestTemplate);
+    }
+
+    private void resumeParsing(int firstModifiedLine, int firstUnmodifiedLine, boolean hadGlobalTestTemplate) {
+        int resumeLine = 0;
+        if (hasGlobalTestTemplate() == hadGlobalTestTemplate) {
+            for (int i = firstModifiedLine - 1; i > 0; --i) {
+                if (isCheckpoint(lines.get(i))) {
+                    resumeLine = i;
+                    break;
+                }
+            }
+        } else {
+            // affects all test cases
+            firstUnmodifiedLine = lines.size();
+        }
+        lineIterator = lines.listIterator(resumeLine);
+        argOff = 0;
+        argLen = 0;
+        lineEndsWithComment = false;
+        prepareNextLine();
+        int lastResetLine = -1;
+        while (lineIterator != null) {
+            if (argOff == 0) {
+                int lineNo = lineIterator.nextIndex() - 1;
+                if (lineNo >= firstUnmodifiedLine && isCheckpoint(line)) {
+                    // the remaining lines are parsed from the same state as before
+                    lines = null;
+                    lineIterator = null;
+                    return;
+                }
+                if (lineNo != lastResetLine) {
+                    lastResetLine = lineNo;
+                    for (ParsedString argument : line.arguments) {
+                        argument.setType(ArgumentType.IGNORED);
+                    }
+                }
+            }
+            parseMoreTokens();
+        }
+    }
+
+    /**
+     * A checkpoint line resets all parser state that affects the argument types of the following lines, and stops
+     * all lookahead scanning started from preceding lines. Thus parsing can be resumed from, and stopped at, such
+     * lines.
+     */
+    static boolean isCheckpoint(RobotLine line) {
+        switch (line.type) {
+            case IGNORE:
+            case COMMENT_LINE:
+            case CONTINUATION_LINE:
+            case TESTCASE_TABLE_TESTCASE_LINE:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    public boolean hasGlobalTestTemplate() {
+        return globalTemplateAtLine != NO_TEMPLATE;
+    }
+
     void prepareNextToken() {
         assert argOff >= 0;
         assert argOff < argLen;
@@ -146,9 +246,9 @@ public class ArgumentPreParser {
                 --argLen; // exclude now, deal with it later (see top of method)
             }
         } else {
-            if (DEBUG) {
+            if (DEBUG || Trace.PARSER_LINES) {
                 for (RobotLine line : lines) {
-                    System.out.println(line);
+                    Trace.trace(line.toString());
                 }
             }
             lines = null;
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Accumulates the time spent in each stage of building files. Thread safe, so with a parallel build the times are
+ * summed over all threads.
+ */
+public class BuildTimings {
+
+    public enum Stage {
+        READ, LEX, PRE_PARSE, INDEX, VALIDATE
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Stage.values().length);
+    private final AtomicInteger files = new AtomicInteger();
+
+    /**
+     * @return the start time to pass to {@link #stop(Stage, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return the stop time, usable as the start time of the next stage
+     */
+    public long stop(Stage stage, long startTime) {
+        long stopTime = System.nanoTime();
+        nanos.addAndGet(stage.ordinal(), stopTime - startTime);
+        return stopTime;
+    }
+
+    public void fileBuilt() {
+        files.incrementAndGet();
+    }
+
+    public long getMillis(Stage stage) {
+        return nanos.get(stage.ordinal()) / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(files.get()).append(" files:");
+        for (Stage stage : Stage.values()) {
+            sb.append(' ').append(stage.name().toLowerCase()).append(' ').append(getMillis(stage)).append(" ms");
+        }
+        return sb.toString();
+    }
+}
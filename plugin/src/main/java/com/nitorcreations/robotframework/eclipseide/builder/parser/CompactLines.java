@@ -0,0 +1,222 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
+
+/**
+ * The lines of a file in a compact columnar form: the values of all arguments are stored in a single char array, and
+ * the positions and types of the lines and arguments in primitive arrays. This retains a fraction of the heap used by
+ * the equivalent {@link RobotLine} and {@link ParsedString} objects, which are created again by {@link #toLines()}.
+ * Immutable.
+ */
+final class CompactLines {
+
+    private static final int SPACE_AFTER = 0x80;
+    private static final LineType[] LINE_TYPES = LineType.values();
+    private static final ArgumentType[] ARGUMENT_TYPES = ArgumentType.values();
+
+    private final char[] text;
+
+    private final int[] lineNos;
+    private final int[] lineCharPositions;
+    /** {@link LineType#ordinal()} + 1, or 0 if the type is not set. */
+    private final byte[] lineTypes;
+    /** The index of the first argument of each line, followed by the number of arguments. */
+    private final int[] firstArguments;
+
+    /** The offset of each argument value in {@link #text}, followed by the length of the text. */
+    private final int[] valueOffsets;
+    private final int[] argCharPositions;
+    /** The argument index, or -1 if not known. */
+    private final int[] argumentIndexes;
+    /** {@link ArgumentType#ordinal()}, or'ed with {@link #SPACE_AFTER}. */
+    private final byte[] argumentTypes;
+
+    CompactLines(List<RobotLine> lines) {
+        int argumentCount = 0;
+        int textLength = 0;
+        for (RobotLine line : lines) {
+            argumentCount += line.arguments.size();
+            for (ParsedString argument : line.arguments) {
+                textLength += argument.getLength();
+            }
+        }
+        text = new char[textLength];
+        lineNos = new int[lines.size()];
+        lineCharPositions = new int[lines.size()];
+        lineTypes = new byte[lines.size()];
+        firstArguments = new int[lines.size() + 1];
+        valueOffsets = new int[argumentCount + 1];
+        argCharPositions = new int[argumentCount];
+        argumentIndexes = new int[argumentCount];
+        argumentTypes = new byte[argumentCount];
+        int lineIndex = 0;
+        int argumentIndex = 0;
+        int textOffset = 0;
+        for (RobotLine line : lines) {
+            lineNos[lineIndex] = line.lineNo;
+            lineCharPositions[lineIndex] = line.lineCharPos;
+            lineTypes[lineIndex] = (byte) (line.type == null ? 0 : line.type.ordinal() + 1);
+            firstArguments[lineIndex] = argumentIndex;
+            for (ParsedString argument : line.arguments) {
+                argument.getChars(text, textOffset);
+                valueOffsets[argumentIndex] = textOffset;
+                argCharPositions[argumentIndex] = argument.getArgCharPos();
+                argumentIndexes[argumentIndex] = argument.hasArgumentIndex() ? argument.getArgumentIndex() : -1;
+                argumentTypes[argumentIndex] = (byte) (argument.getType().ordinal() | (argument.hasSpaceAfter() ? SPACE_AFTER : 0));
+                textOffset += argument.getLength();
+                ++argumentIndex;
+            }
+            ++lineIndex;
+        }
+        firstArguments[lineIndex] = argumentIndex;
+        valueOffsets[argumentIndex] = textOffset;
+    }
+
+    private CompactLines(char[] text, int[] lineNos, int[] lineCharPositions, byte[] lineTypes, int[] firstArguments, int[] valueOffsets, int[] argCharPositions, int[] argumentIndexes, byte[] argumentTypes) {
+        this.text = text;
+        this.lineNos = lineNos;
+        this.lineCharPositions = lineCharPositions;
+        this.lineTypes = lineTypes;
+        this.firstArguments = firstArguments;
+        this.valueOffsets = valueOffsets;
+        this.argCharPositions = argCharPositions;
+        this.argumentIndexes = argumentIndexes;
+        this.argumentTypes = argumentTypes;
+    }
+
+    /**
+     * Writes this instance in the form read by {@link #read(DataInput)}. The types are written as ordinals, so the
+     * reader must check that {@link LineType} and {@link ArgumentType} have not changed since.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(text.length);
+        for (char ch : text) {
+            out.writeChar(ch);
+        }
+        writeInts(out, lineNos);
+        writeInts(out, lineCharPositions);
+        writeBytes(out, lineTypes);
+        writeInts(out, firstArguments);
+        writeInts(out, valueOffsets);
+        writeInts(out, argCharPositions);
+        writeInts(out, argumentIndexes);
+        writeBytes(out, argumentTypes);
+    }
+
+    static CompactLines read(DataInput in) throws IOException {
+        char[] text = new char[in.readInt()];
+        for (int i = 0; i < text.length; ++i) {
+            text[i] = in.readChar();
+        }
+        int[] lineNos = readInts(in);
+        int[] lineCharPositions = readInts(in);
+        byte[] lineTypes = readBytes(in);
+        int[] firstArguments = readInts(in);
+        int[] valueOffsets = readInts(in);
+        int[] argCharPositions = readInts(in);
+        int[] argumentIndexes = readInts(in);
+        byte[] argumentTypes = readBytes(in);
+        int lineCount = lineNos.length;
+        int argumentCount = argCharPositions.length;
+        if (lineCharPositions.length != lineCount || lineTypes.length != lineCount || firstArguments.length != lineCount + 1 || firstArguments[lineCount] != argumentCount || valueOffsets.length != argumentCount + 1 || valueOffsets[argumentCount] != text.length || argumentIndexes.length != argumentCount || argumentTypes.length != argumentCount) {
+            throw new IOException("Inconsistent lines");
+        }
+        return new CompactLines(text, lineNos, lineCharPositions, lineTypes, firstArguments, valueOffsets, argCharPositions, argumentIndexes, argumentTypes);
+    }
+
+    private static void writeInts(DataOutput out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeBytes(DataOutput out, byte[] values) throws IOException {
+        out.writeInt(values.length);
+        out.write(values);
+    }
+
+    private static int[] readInts(DataInput in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] values = new byte[in.readInt()];
+        in.readFully(values);
+        return values;
+    }
+
+    int size() {
+        return lineNos.length;
+    }
+
+    /**
+     * @return new line objects equal to the lines this instance was created from, with argument values created from the
+     *         shared text only when needed
+     */
+    List<RobotLine> toLines() {
+        List<RobotLine> lines = new ArrayList<RobotLine>(lineNos.length);
+        for (int lineIndex = 0; lineIndex < lineNos.length; ++lineIndex) {
+            int first = firstArguments[lineIndex];
+            int count = firstArguments[lineIndex + 1] - first;
+            List<ParsedString> arguments;
+            if (count == 0) {
+                arguments = Collections.emptyList();
+            } else {
+                ParsedString[] argumentArray = new ParsedString[count];
+                for (int i = 0; i < count; ++i) {
+                    argumentArray[i] = toArgument(first + i);
+                }
+                arguments = Arrays.asList(argumentArray);
+            }
+            RobotLine line = new RobotLine(lineNos[lineIndex], lineCharPositions[lineIndex], arguments);
+            int lineType = lineTypes[lineIndex];
+            line.type = lineType == 0 ? null : LINE_TYPES[lineType - 1];
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private ParsedString toArgument(int i) {
+        int offset = valueOffsets[i];
+        int length = valueOffsets[i + 1] - offset;
+        ParsedString argument;
+        if (argumentIndexes[i] < 0) {
+            argument = new ParsedString(new String(text, offset, length), argCharPositions[i]);
+        } else {
+            argument = new ParsedString(text, offset, length, argCharPositions[i], argumentIndexes[i]);
+        }
+        int type = argumentTypes[i] & 0xff;
+        argument.setType(ARGUMENT_TYPES[type & ~SPACE_AFTER]);
+        argument.setHasSpaceAfter((type & SPACE_AFTER) != 0);
+        return argument;
+    }
+}
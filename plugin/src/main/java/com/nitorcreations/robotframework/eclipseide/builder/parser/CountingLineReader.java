@@ -19,59 +19,146 @@ import java.io.IOException;
 import java.io.Reader;
 
 /**
- * Tested indirectly through {@link TestLexer}.
+ * Reads lines from a reader into a buffer, scanning each character only once. The current line is available as a
+ * range of {@link #getBuffer()}, which is never modified after the range has been returned: when a line does not fit
+ * in the rest of the buffer, the partial line is continued in a new buffer. Tested indirectly through {@link TestLexer}.
  */
 public class CountingLineReader {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final Reader reader;
 
     private int charsConsumed;
 
     private boolean eof;
 
-    private final StringBuilder sb = new StringBuilder();
+    private char[] buf;
+
+    /**
+     * The start of the characters not yet returned as lines.
+     */
+    private int start;
+
+    /**
+     * The position up to which the characters have been searched for a line feed.
+     */
+    private int scanned;
+
+    /**
+     * The end of the characters read into the buffer.
+     */
+    private int end;
+
+    private int lineStart;
+
+    private int lineEnd;
 
     public CountingLineReader(Reader reader) {
         this.reader = reader;
+        this.buf = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * For input of a known length, e.g. a single region of a document. The buffer is sized to fit it, as the parsed
+     * arguments keep referring to the buffer.
+     * 
+     * @param length
+     *            the number of characters in the reader
+     */
+    public CountingLineReader(Reader reader, int length) {
+        this.reader = reader;
+        // one extra character, so that the end of input is seen without growing the buffer
+        this.buf = new char[length + 1];
     }
 
     public void close() throws IOException {
         reader.close();
     }
 
+    /**
+     * @return the number of characters consumed, including the line terminator of the current line
+     */
     public int getCharPos() {
         return charsConsumed;
     }
 
     public String readLine() throws IOException {
+        return nextLine() ? getLine() : null;
+    }
+
+    /**
+     * Advances to the next line. A carriage return before the line feed is not included in the line.
+     * 
+     * @return false if there are no more lines
+     */
+    public boolean nextLine() throws IOException {
         if (eof) {
-            return null;
+            return false;
         }
         int lf;
-        do {
-            lf = sb.indexOf("\n");
-        } while (lf == -1 && fill());
-        String ret;
-        if (lf == -1) {
-            eof = true;
-            ret = sb.toString();
-            sb.setLength(0);
-            charsConsumed += ret.length();
-        } else {
-            ret = sb.substring(0, lf);
-            sb.delete(0, lf + 1);
-            charsConsumed += lf + 1;
+        while ((lf = findLineFeed()) == -1) {
+            if (!fill()) {
+                eof = true;
+                setLine(end, end);
+                return true;
+            }
         }
-        return ret.replace("\r", "");
+        setLine(lf, lf + 1);
+        return true;
+    }
+
+    /**
+     * @return the buffer containing the current line
+     */
+    public char[] getBuffer() {
+        return buf;
+    }
+
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    public int getLineEnd() {
+        return lineEnd;
+    }
+
+    public String getLine() {
+        return new String(buf, lineStart, lineEnd - lineStart);
+    }
+
+    private int findLineFeed() {
+        for (; scanned < end; ++scanned) {
+            if (buf[scanned] == '\n') {
+                return scanned;
+            }
+        }
+        return -1;
+    }
+
+    private void setLine(int terminatorStart, int next) {
+        lineStart = start;
+        lineEnd = terminatorStart > start && buf[terminatorStart - 1] == '\r' ? terminatorStart - 1 : terminatorStart;
+        charsConsumed += next - start;
+        start = next;
+        scanned = next;
     }
 
     private boolean fill() throws IOException {
-        char[] buf = new char[1024];
-        int read = reader.read(buf);
+        if (end == buf.length) {
+            int partial = end - start;
+            char[] newBuf = new char[Math.max(BUFFER_SIZE, partial * 2)];
+            System.arraycopy(buf, start, newBuf, 0, partial);
+            buf = newBuf;
+            scanned -= start;
+            start = 0;
+            end = partial;
+        }
+        int read = reader.read(buf, end, buf.length - end);
         if (read == -1) {
             return false;
         }
-        sb.append(buf, 0, read);
+        end += read;
         return true;
     }
 
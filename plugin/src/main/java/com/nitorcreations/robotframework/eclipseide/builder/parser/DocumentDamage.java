@@ -0,0 +1,120 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * Tracks the region of a document modified since it was last lexed, so that only the modified lines need to be lexed
+ * again. Consecutive modifications are merged into one region.
+ * <p>
+ * The document may be read from a background thread while it is being modified in the UI thread. Reading is therefore
+ * done while holding the lock of this object, and is refused while a modification is in progress, so that the
+ * contents read always match the recorded damage.
+ */
+class DocumentDamage implements IDocumentListener {
+
+    private final IDocument document;
+
+    /** Start of the damaged region in current document coordinates, or -1 if the document is undamaged. */
+    private int start = -1;
+    /** End of the damaged region in current document coordinates. */
+    private int end;
+    /** Change in document length caused by the modifications within the damaged region. */
+    private int delta;
+    /** Number of modifications announced but not yet completed. */
+    private int pendingChanges;
+
+    DocumentDamage(IDocument document) {
+        this.document = document;
+    }
+
+    void attach() {
+        // notified before the regular listeners such as the text viewer, which may parse the document
+        document.addPrenotifiedDocumentListener(this);
+    }
+
+    void detach() {
+        document.removePrenotifiedDocumentListener(this);
+    }
+
+    boolean isFor(IDocument document) {
+        return this.document == document;
+    }
+
+    @Override
+    public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+        String text = event.getText();
+        add(event.getOffset(), event.getLength(), text == null ? 0 : text.length());
+        ++pendingChanges;
+    }
+
+    @Override
+    public synchronized void documentChanged(DocumentEvent event) {
+        if (pendingChanges > 0) {
+            --pendingChanges;
+        }
+    }
+
+    synchronized void add(int offset, int length, int textLength) {
+        int eventDelta = textLength - length;
+        if (start == -1) {
+            start = offset;
+            end = offset + textLength;
+            delta = eventDelta;
+            return;
+        }
+        end = Math.max(end, offset + length) + eventDelta;
+        start = Math.min(start, offset);
+        delta += eventDelta;
+    }
+
+    synchronized boolean isEmpty() {
+        return start == -1;
+    }
+
+    synchronized void clear() {
+        start = -1;
+    }
+
+    /**
+     * Re-lexes the damaged lines and clears the damage.
+     * 
+     * @return the lines of the current document, or <code>null</code> if they could not be determined incrementally
+     */
+    synchronized List<RobotLine> relex(String filename, List<RobotLine> oldLines) throws CoreException {
+        if (pendingChanges > 0) {
+            return null;
+        }
+        List<RobotLine> lines = Lexer.relex(filename, oldLines, document, start, end - delta, end);
+        clear();
+        return lines;
+    }
+
+    /**
+     * Clears the damage and returns the contents of the document, to be lexed from scratch. If a modification is in
+     * progress, the contents may or may not include it; the caller detects this by the modification stamp.
+     */
+    synchronized String clearAndGetContents() {
+        clear();
+        return document.get();
+    }
+}
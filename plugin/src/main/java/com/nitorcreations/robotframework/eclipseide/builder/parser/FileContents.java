@@ -0,0 +1,107 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Reads the contents of workspace files. Files in the local file system are read with a single bulk read and decoded
+ * at once; virtual and remote files fall back to {@link IFile#getContents()}.
+ * <p>
+ * The files are not memory-mapped, as on Windows a mapped file cannot be saved until the mapping is garbage collected.
+ */
+final class FileContents {
+
+    private FileContents() {}
+
+    static String read(IFile file) throws CoreException, IOException {
+        CharBuffer chars = readLocal(file);
+        if (chars != null) {
+            return chars.toString();
+        }
+        Reader reader = new InputStreamReader(file.getContents(), file.getCharset());
+        try {
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[8192];
+            int n;
+            while ((n = reader.read(buf)) != -1) {
+                sb.append(buf, 0, n);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    static Reader openReader(IFile file) throws CoreException, IOException {
+        CharBuffer chars = readLocal(file);
+        if (chars != null) {
+            return new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+        return new InputStreamReader(file.getContents(), file.getCharset());
+    }
+
+    /**
+     * @return the decoded contents of the file, or null if the file is not in the local file system
+     */
+    private static CharBuffer readLocal(IFile file) throws CoreException, IOException {
+        IPath location = file.getLocation();
+        if (location == null) {
+            return null;
+        }
+        File localFile = location.toFile();
+        if (!localFile.isFile()) {
+            return null;
+        }
+        return decode(localFile, file.getCharset());
+    }
+
+    /**
+     * Malformed input is replaced like {@link InputStreamReader} does.
+     */
+    static CharBuffer decode(File file, String charset) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+                // keep reading
+            }
+            bytes.flip();
+            return Charset.forName(charset).newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE).decode(bytes);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -16,10 +16,10 @@
 package com.nitorcreations.robotframework.eclipseide.builder.parser;
 
 public class FileInfo {
-    RobotFile onDisk;
     RobotFile inEditor;
+    DocumentDamage inEditorDamage;
 
     boolean isEmpty() {
-        return onDisk == null && inEditor == null;
+        return inEditor == null;
     }
 }
\ No newline at end of file
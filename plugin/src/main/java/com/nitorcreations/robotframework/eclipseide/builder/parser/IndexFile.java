@@ -24,20 +24,94 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 
+import com.nitorcreations.robotframework.eclipseide.internal.util.FileType;
 import com.nitorcreations.robotframework.eclipseide.internal.util.FileWithType;
+import com.nitorcreations.robotframework.eclipseide.internal.util.KeywordLookup;
+import com.nitorcreations.robotframework.eclipseide.internal.util.SubstringIndex;
 
 public class IndexFile {
 
+    private static final class CachedIndex {
+        final long modificationStamp;
+        final List<String> keywords;
+        final List<String> variables;
+        private SubstringIndex keywordIndex;
+        private KeywordLookup<String> keywordLookup;
+
+        CachedIndex(long modificationStamp, List<String> contents) {
+            this.modificationStamp = modificationStamp;
+            this.keywords = filtered(contents, false);
+            this.variables = filtered(contents, true);
+        }
+
+        private static List<String> filtered(List<String> contents, boolean wantVariables) {
+            List<String> filtered = new ArrayList<String>(contents);
+            filter(filtered, wantVariables);
+            return Collections.unmodifiableList(filtered);
+        }
+
+        synchronized SubstringIndex getKeywordIndex() {
+            if (keywordIndex == null) {
+                keywordIndex = new SubstringIndex(keywords);
+            }
+            return keywordIndex;
+        }
+
+        synchronized KeywordLookup<String> getKeywordLookup() {
+            if (keywordLookup == null) {
+                keywordLookup = new KeywordLookup<String>(keywords, keywords);
+            }
+            return keywordLookup;
+        }
+    }
+
+    private static final Map<IFile, CachedIndex> CACHE = Collections.synchronizedMap(new HashMap<IFile, CachedIndex>());
+
+    /**
+     * Drops the cached contents of changed index files. The modification stamp check alone would keep the contents of
+     * removed index files around.
+     */
+    public static final IResourceChangeListener CACHE_INVALIDATOR = new IResourceChangeListener() {
+        @Override
+        public void resourceChanged(IResourceChangeEvent event) {
+            IResourceDelta delta = event.getDelta();
+            if (delta == null) {
+                return;
+            }
+            try {
+                delta.accept(new IResourceDeltaVisitor() {
+                    @Override
+                    public boolean visit(IResourceDelta delta) throws CoreException {
+                        IResource resource = delta.getResource();
+                        if (resource instanceof IFile && "index".equals(((IFile) resource).getFileExtension())) {
+                            CACHE.remove(resource);
+                        }
+                        return true;
+                    }
+                });
+            } catch (CoreException e) {
+                CACHE.clear();
+            }
+        }
+    };
+
     public static List<String> getVariables(FileWithType fileWithType) {
         switch (fileWithType.getType()) {
             case VARIABLE:
@@ -56,6 +130,40 @@ public class IndexFile {
         return Collections.emptyList();
     }
 
+    /**
+     * @param lowerCaseSubstrings
+     *            see
+     *            {@link com.nitorcreations.robotframework.eclipseide.internal.util.SubstringMatchFilter#getWantedSubstrings},
+     *            null for all keywords
+     * @return the keywords containing any of the given substrings, in index file order
+     */
+    public static List<String> getKeywords(FileWithType fileWithType, Collection<String> lowerCaseSubstrings) {
+        if (lowerCaseSubstrings == null || fileWithType.getType() != FileType.LIBRARY) {
+            return getKeywords(fileWithType);
+        }
+        CachedIndex cachedIndex = getExistingCachedIndex(getIndexFileForLibrary(fileWithType));
+        if (cachedIndex == null) {
+            return Collections.emptyList();
+        }
+        return cachedIndex.getKeywordIndex().filter(cachedIndex.keywords, lowerCaseSubstrings);
+    }
+
+    /**
+     * @param name
+     *            the called name, possibly prefixed with the name of the library
+     * @return the keywords that may match the given name, in index file order
+     */
+    public static List<String> getKeywords(FileWithType fileWithType, String name) {
+        if (fileWithType.getType() != FileType.LIBRARY) {
+            return getKeywords(fileWithType);
+        }
+        CachedIndex cachedIndex = getExistingCachedIndex(getIndexFileForLibrary(fileWithType));
+        if (cachedIndex == null) {
+            return Collections.emptyList();
+        }
+        return cachedIndex.getKeywordLookup().get(name, fileWithType.getName());
+    }
+
     private static List<String> getVariableFileVariables(IFile file) {
         IFile indexFile = getIndexFileForVariableFile(file);
         return getMatches(indexFile, true);
@@ -87,20 +195,36 @@ public class IndexFile {
     }
 
     private static List<String> getMatches(IFile indexFile, boolean wantVariables) {
-        if (indexFile == null) {
+        CachedIndex cachedIndex = getExistingCachedIndex(indexFile);
+        if (cachedIndex == null) {
             return Collections.emptyList();
         }
+        return wantVariables ? cachedIndex.variables : cachedIndex.keywords;
+    }
+
+    private static CachedIndex getExistingCachedIndex(IFile indexFile) {
+        if (indexFile == null) {
+            return null;
+        }
         if (!indexFile.exists()) {
             if (indexFile.isSynchronized(IFile.DEPTH_ZERO)) {
                 report("Warning: index file " + formatForLog(indexFile) + " not found, not able to do proper error checking / hyperlinking / code completion");
             } else {
                 report("Warning: index file " + formatForLog(indexFile) + " is out of sync. Please refresh the workspace.");
             }
-            return Collections.emptyList();
+            return null;
+        }
+        return getCachedIndex(indexFile);
+    }
+
+    private static CachedIndex getCachedIndex(IFile indexFile) {
+        long modificationStamp = indexFile.getModificationStamp();
+        CachedIndex cachedIndex = CACHE.get(indexFile);
+        if (cachedIndex == null || cachedIndex.modificationStamp != modificationStamp) {
+            cachedIndex = new CachedIndex(modificationStamp, load(indexFile));
+            CACHE.put(indexFile, cachedIndex);
         }
-        List<String> contents = load(indexFile);
-        filter(contents, wantVariables);
-        return contents;
+        return cachedIndex;
     }
 
     private static List<String> load(IFile indexFile) {
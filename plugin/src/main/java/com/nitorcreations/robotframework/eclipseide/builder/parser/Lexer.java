@@ -31,9 +31,11 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 
 /**
@@ -44,20 +46,27 @@ public class Lexer {
     private final List<RobotLine> lexLines = new ArrayList<RobotLine>();
     private final String filename;
     private final Reader filestream;
+    /** the number of characters in {@link #filestream}, or -1 if not known in advance */
+    private final int contentsLength;
     private final IProgressMonitor monitor;
+    private final int firstLineNo;
+    private final int firstCharPos;
 
     /**
      * For files being "compiled" from disk.
      * 
      * @param file
      * @param monitor
-     * @throws UnsupportedEncodingException
+     * @throws IOException
      * @throws CoreException
      */
-    public Lexer(final IFile file, IProgressMonitor monitor) throws UnsupportedEncodingException, CoreException {
+    public Lexer(final IFile file, IProgressMonitor monitor) throws IOException, CoreException {
         this.filename = file.toString();
-        this.filestream = new InputStreamReader(file.getContents(), file.getCharset());
+        this.filestream = FileContents.openReader(file);
+        this.contentsLength = -1;
         this.monitor = monitor == null ? new NullProgressMonitor() : monitor;
+        this.firstLineNo = 0;
+        this.firstCharPos = 0;
     }
 
     /**
@@ -73,7 +82,10 @@ public class Lexer {
     public Lexer(File file, String charset) throws UnsupportedEncodingException, FileNotFoundException {
         this.filename = file.getName();
         this.filestream = new InputStreamReader(new FileInputStream(file), charset);
+        this.contentsLength = -1;
         this.monitor = new NullProgressMonitor();
+        this.firstLineNo = 0;
+        this.firstCharPos = 0;
     }
 
     /**
@@ -87,7 +99,10 @@ public class Lexer {
     public Lexer(String fileContents) throws UnsupportedEncodingException, FileNotFoundException {
         this.filename = "<in-memory file>";
         this.filestream = new StringReader(fileContents);
+        this.contentsLength = fileContents.length();
         this.monitor = new NullProgressMonitor();
+        this.firstLineNo = 0;
+        this.firstCharPos = 0;
     }
 
     /**
@@ -97,30 +112,144 @@ public class Lexer {
      */
     public Lexer(IDocument document) {
         this.filename = PluginContext.getResourceManager().resolveFileFor(document).toString();
-        this.filestream = new StringReader(document.get());
+        String contents = document.get();
+        this.filestream = new StringReader(contents);
+        this.contentsLength = contents.length();
         this.monitor = new NullProgressMonitor();
+        this.firstLineNo = 0;
+        this.firstCharPos = 0;
+    }
+
+    /**
+     * For a region of a document being edited.
+     * 
+     * @param filename
+     * @param regionContents
+     *            the contents of the region, starting at the beginning of a line
+     * @param firstLineNo
+     *            the line number of the first line of the region
+     * @param firstCharPos
+     *            the character position of the first line of the region
+     */
+    Lexer(String filename, String regionContents, int firstLineNo, int firstCharPos) {
+        this.filename = filename;
+        this.filestream = new StringReader(regionContents);
+        this.contentsLength = regionContents.length();
+        this.monitor = new NullProgressMonitor();
+        this.firstLineNo = firstLineNo;
+        this.firstCharPos = firstCharPos;
+    }
+
+    /**
+     * For file contents already read from disk.
+     * 
+     * @param filename
+     * @param contents
+     * @param monitor
+     */
+    Lexer(String filename, String contents, IProgressMonitor monitor) {
+        this.filename = filename;
+        this.filestream = new StringReader(contents);
+        this.contentsLength = contents.length();
+        this.monitor = monitor == null ? new NullProgressMonitor() : monitor;
+        this.firstLineNo = 0;
+        this.firstCharPos = 0;
+    }
+
+    /**
+     * Re-lexes only the lines of the document touched by a modification, reusing the lines of a previous lexing
+     * result for the rest of the document. The lines after the modification are moved to their new line numbers and
+     * character positions. The re-lexed lines are recognizable by their unset {@link RobotLine#type}, while the other
+     * lines retain their previous types.
+     * 
+     * @param filename
+     * @param oldLines
+     *            the lines of the document as they were before the modification
+     * @param document
+     *            the document after the modification
+     * @param damageStart
+     *            the offset of the first modified character
+     * @param oldDamageEnd
+     *            the end offset of the modified characters before the modification
+     * @param newDamageEnd
+     *            the end offset of the modified characters after the modification
+     * @return the lines of the modified document, or <code>null</code> if the previous lexing result does not match
+     *         the document and it must be lexed from scratch
+     */
+    public static List<RobotLine> relex(String filename, List<RobotLine> oldLines, IDocument document, int damageStart, int oldDamageEnd, int newDamageEnd) throws CoreException {
+        if (oldLines.isEmpty() || damageStart < 0 || oldDamageEnd < damageStart || newDamageEnd < damageStart) {
+            return null;
+        }
+        int charPosDelta = newDamageEnd - oldDamageEnd;
+        int firstLine = findLineContaining(oldLines, damageStart);
+        int lastLine = findLineContaining(oldLines, oldDamageEnd);
+        boolean lastLineIsFinal = lastLine == oldLines.size() - 1;
+        int regionStart = oldLines.get(firstLine).lineCharPos;
+        int regionEnd = lastLineIsFinal ? document.getLength() : oldLines.get(lastLine + 1).lineCharPos + charPosDelta;
+        if (regionEnd < regionStart || regionEnd > document.getLength()) {
+            return null;
+        }
+        String regionContents;
+        try {
+            if (!lastLineIsFinal && (regionEnd == regionStart || document.getChar(regionEnd - 1) != '\n')) {
+                return null;
+            }
+            regionContents = document.get(regionStart, regionEnd - regionStart);
+        } catch (BadLocationException e) {
+            return null;
+        }
+        List<RobotLine> relexedLines = new Lexer(filename, regionContents, firstLine, regionStart).lex();
+        if (!lastLineIsFinal) {
+            // the empty line after the final linefeed of the region is actually the first line after the region
+            relexedLines.remove(relexedLines.size() - 1);
+        }
+        int lineNoDelta = firstLine + relexedLines.size() - (lastLine + 1);
+        List<RobotLine> lines = new ArrayList<RobotLine>(oldLines.size() + lineNoDelta);
+        for (int i = 0; i < firstLine; ++i) {
+            lines.add(oldLines.get(i).copyShiftedBy(0, 0));
+        }
+        lines.addAll(relexedLines);
+        for (int i = lastLine + 1; i < oldLines.size(); ++i) {
+            lines.add(oldLines.get(i).copyShiftedBy(lineNoDelta, charPosDelta));
+        }
+        return lines;
+    }
+
+    private static int findLineContaining(List<RobotLine> lines, int charPos) {
+        int low = 0;
+        int high = lines.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lines.get(mid).lineCharPos <= charPos) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
     }
 
     public List<RobotLine> lex() throws CoreException {
         try {
-            System.out.println("Lexing " + filename);
-            CountingLineReader contents = new CountingLineReader(filestream);
-            String line;
-            int lineNo = 0;
-            int charPos = 0;
-            while (null != (line = contents.readLine())) {
+            if (Trace.PARSER) {
+                Trace.trace("Lexing " + filename);
+            }
+            CountingLineReader contents = contentsLength >= 0 ? new CountingLineReader(filestream, contentsLength) : new CountingLineReader(filestream);
+            int lineNo = firstLineNo;
+            int charPos = firstCharPos;
+            while (contents.nextLine()) {
                 if (monitor.isCanceled()) {
                     return null;
                 }
                 try {
-                    lexLine(line, lineNo, charPos);
+                    lexLine(contents.getBuffer(), contents.getLineStart(), contents.getLineEnd(), lineNo, charPos);
                 } catch (CoreException e) {
-                    throw new RuntimeException("Error when lexing line " + lineNo + ": '" + line + "'", e);
+                    throw new RuntimeException("Error when lexing line " + lineNo + ": '" + contents.getLine() + "'", e);
                 } catch (RuntimeException e) {
-                    throw new RuntimeException("Internal error when lexing line " + lineNo + ": '" + line + "'", e);
+                    throw new RuntimeException("Internal error when lexing line " + lineNo + ": '" + contents.getLine() + "'", e);
                 }
                 ++lineNo;
-                charPos = contents.getCharPos();
+                charPos = firstCharPos + contents.getCharPos();
             }
 
             // TODO store results
@@ -136,8 +265,8 @@ public class Lexer {
         return lexLines;
     }
 
-    private void lexLine(String line, int lineNo, int charPos) throws CoreException {
-        List<ParsedString> arguments = TxtArgumentSplitter.splitLineIntoArguments(line, charPos);
+    private void lexLine(char[] buf, int start, int end, int lineNo, int charPos) throws CoreException {
+        List<ParsedString> arguments = TxtArgumentSplitter.splitLineIntoArguments(buf, start, end, charPos);
         if (arguments.isEmpty()) {
             lexLines.add(new RobotLine(lineNo, charPos, Collections.<ParsedString> emptyList()));
             return;
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
+
+/**
+ * The on-disk versions of parsed files, evicting the least recently used file when more than {@link #getCapacity()}
+ * files are cached. Each entry is only valid for the modification stamp the file had when it was parsed, so a file
+ * modified outside of the builder is parsed again. The versions in editors are not cached here and are never evicted.
+ * <p>
+ * The cached files can be saved across restarts with {@link #saveTo(File)}. The saved files are read back on first use
+ * after {@link #restoreFrom(File)}, and a saved file is only used if its contents have not changed since. Thread safe.
+ */
+public final class ParseCache {
+
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    private static final class CachedFile {
+        final RobotFile robotFile;
+        final long modificationStamp;
+
+        CachedFile(RobotFile robotFile, long modificationStamp) {
+            this.robotFile = robotFile;
+            this.modificationStamp = modificationStamp;
+        }
+    }
+
+    private final Map<IFile, CachedFile> entries = new LinkedHashMap<IFile, CachedFile>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IFile, CachedFile> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            ++evictions;
+            return true;
+        }
+    };
+
+    /** The saved files not used yet, by file. */
+    private Map<IFile, RobotFile> restored = Collections.emptyMap();
+    /** The file to restore from on first use, or null if already restored. */
+    private File snapshotFile;
+
+    private int capacity;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long restores;
+
+    public ParseCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the cached version of the file, or null if not cached or the file has been modified since
+     */
+    synchronized RobotFile get(IFile file, long modificationStamp) {
+        CachedFile entry = entries.get(file);
+        if (entry == null || entry.modificationStamp != modificationStamp) {
+            ++misses;
+            return null;
+        }
+        ++hits;
+        return entry.robotFile;
+    }
+
+    /**
+     * @return the saved version of the file, or null if not saved or the file has been modified since
+     */
+    synchronized RobotFile restore(IFile file, long contentHash) {
+        loadSnapshot();
+        RobotFile robotFile = restored.remove(file);
+        if (robotFile == null || robotFile.getContentHash() != contentHash) {
+            return null;
+        }
+        ++restores;
+        return robotFile;
+    }
+
+    synchronized void put(IFile file, RobotFile robotFile, long modificationStamp) {
+        entries.put(file, new CachedFile(robotFile, modificationStamp));
+    }
+
+    synchronized void remove(IFile file) {
+        entries.remove(file);
+        restored.remove(file);
+    }
+
+    /**
+     * @return the cached files and the saved files not used yet
+     */
+    synchronized Collection<IFile> getFiles() {
+        loadSnapshot();
+        Collection<IFile> files = new ArrayList<IFile>(restored.keySet());
+        files.addAll(entries.keySet());
+        return files;
+    }
+
+    /**
+     * Sets the file to read the saved files from when first needed.
+     */
+    public synchronized void restoreFrom(File file) {
+        snapshotFile = file;
+    }
+
+    /**
+     * Saves the cached files and the saved files not used yet, least recently used files first.
+     */
+    public void saveTo(File file) throws IOException {
+        Map<String, RobotFile> files = new LinkedHashMap<String, RobotFile>();
+        synchronized (this) {
+            loadSnapshot();
+            for (Map.Entry<IFile, RobotFile> entry : restored.entrySet()) {
+                if (entry.getKey().exists()) {
+                    files.put(entry.getKey().getFullPath().toPortableString(), entry.getValue());
+                }
+            }
+            for (Map.Entry<IFile, CachedFile> entry : entries.entrySet()) {
+                files.put(entry.getKey().getFullPath().toPortableString(), entry.getValue().robotFile);
+            }
+        }
+        File tmpFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try {
+            ParseCacheSnapshot.write(out, files);
+        } finally {
+            out.close();
+        }
+        file.delete();
+        if (!tmpFile.renameTo(file)) {
+            throw new IOException("Could not rename " + tmpFile + " to " + file);
+        }
+        if (Trace.BUILDER) {
+            Trace.trace("Saved " + files.size() + " parsed files to " + file);
+        }
+    }
+
+    private void loadSnapshot() {
+        File file = snapshotFile;
+        if (file == null) {
+            return;
+        }
+        snapshotFile = null;
+        if (!file.exists()) {
+            return;
+        }
+        Map<String, RobotFile> files;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                files = ParseCacheSnapshot.read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return;
+        }
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        restored = new LinkedHashMap<IFile, RobotFile>();
+        for (Map.Entry<String, RobotFile> entry : files.entrySet()) {
+            IFile restoredFile = root.getFile(Path.fromPortableString(entry.getKey()));
+            if (!entries.containsKey(restoredFile)) {
+                restored.put(restoredFile, entry.getValue());
+            }
+        }
+        if (Trace.BUILDER) {
+            Trace.trace("Restored " + restored.size() + " parsed files from " + file);
+        }
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of files to cache, evicting the least recently used files if necessary.
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        int excess = entries.size() - capacity;
+        for (Iterator<IFile> it = entries.keySet().iterator(); excess > 0; --excess) {
+            it.next();
+            it.remove();
+            ++evictions;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of saved files used instead of parsing the file
+     */
+    public synchronized long getRestores() {
+        return restores;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.size() + "/" + capacity + " files, " + hits + " hits, " + misses + " misses, " + evictions + " evictions, " + restores + " restores";
+    }
+}
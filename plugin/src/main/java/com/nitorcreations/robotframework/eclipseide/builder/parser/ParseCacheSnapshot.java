@@ -0,0 +1,111 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
+
+/**
+ * The format in which the on-disk versions of parsed files are saved across restarts: the workspace path and content
+ * hash of each file followed by its lines in compact form. A file is only restored when the hash of its current
+ * contents matches, so the snapshot needs no other invalidation.
+ */
+final class ParseCacheSnapshot {
+
+    private static final int MAGIC = 0x52464550; // "RFEP"
+    private static final int VERSION = 1;
+
+    private ParseCacheSnapshot() {
+    }
+
+    /**
+     * @return a 64-bit FNV-1a hash of the given file contents
+     */
+    static long hash(String contents) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < contents.length(); ++i) {
+            hash ^= contents.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @param files
+     *            the parsed files by workspace path
+     */
+    static void write(DataOutput out, Map<String, RobotFile> files) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeNames(out, LineType.values());
+        writeNames(out, ArgumentType.values());
+        out.writeInt(files.size());
+        for (Map.Entry<String, RobotFile> entry : files.entrySet()) {
+            RobotFile robotFile = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeLong(robotFile.getContentHash());
+            out.writeBoolean(robotFile.hasGlobalTestTemplate());
+            robotFile.getCompactLines().write(out);
+        }
+    }
+
+    /**
+     * @return the parsed files by workspace path, or an empty map if the snapshot was written by a version of the plugin
+     *         with different line or argument types
+     */
+    static Map<String, RobotFile> read(DataInput in) throws IOException {
+        Map<String, RobotFile> files = new LinkedHashMap<String, RobotFile>();
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a parse cache snapshot");
+        }
+        if (in.readInt() != VERSION || !readNames(in, LineType.values()) || !readNames(in, ArgumentType.values())) {
+            return files;
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; ++i) {
+            String path = in.readUTF();
+            long contentHash = in.readLong();
+            boolean hasGlobalTestTemplate = in.readBoolean();
+            files.put(path, RobotFile.restore(CompactLines.read(in), hasGlobalTestTemplate, contentHash));
+        }
+        return files;
+    }
+
+    private static void writeNames(DataOutput out, Enum<?>[] values) throws IOException {
+        out.writeInt(values.length);
+        for (Enum<?> value : values) {
+            out.writeUTF(value.name());
+        }
+    }
+
+    /**
+     * @return true if the names read match the given values
+     */
+    private static boolean readNames(DataInput in, Enum<?>[] values) throws IOException {
+        int count = in.readInt();
+        boolean matches = count == values.length;
+        for (int i = 0; i < count; ++i) {
+            String name = in.readUTF();
+            matches &= i < values.length && values[i].name().equals(name);
+        }
+        return matches;
+    }
+}
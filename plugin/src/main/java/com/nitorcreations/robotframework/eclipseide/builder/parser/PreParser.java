@@ -22,6 +22,7 @@ import java.util.Map;
 import org.eclipse.core.runtime.CoreException;
 
 import com.nitorcreations.robotframework.eclipseide.builder.parser.util.ParserUtil;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 
 // TODO case sensitivity
@@ -59,7 +60,9 @@ public class PreParser {
 
     public void preParse() throws CoreException {
         try {
-            System.out.println("Preparsing " + filename);
+            if (Trace.PARSER) {
+                Trace.trace("Preparsing " + filename);
+            }
             for (RobotLine line : lines) {
                 try {
                     parseLine(line);
@@ -76,6 +79,45 @@ public class PreParser {
         }
     }
 
+    /**
+     * Determines the line types of a modified file, whose lines outside the modified range still carry the line types
+     * from before the modification. Parsing resumes from the line preceding the modified lines and stops as soon as
+     * the line types are known to be the same as before.
+     * 
+     * @param firstModifiedLine
+     *            the index of the first modified line
+     * @param firstUnmodifiedLine
+     *            the index of the first line after the modified lines
+     * @return the index of the first line from which on the line types did not change
+     */
+    public int preParseModified(int firstModifiedLine, int firstUnmodifiedLine) throws CoreException {
+        prevLineType = LineType.IGNORE;
+        for (int i = firstModifiedLine - 1; i >= 0; --i) {
+            RobotLine line = lines.get(i);
+            if (affectsFollowingLineTypes(line)) {
+                prevLineType = line.type;
+                break;
+            }
+        }
+        for (int i = firstModifiedLine; i < lines.size(); ++i) {
+            RobotLine line = lines.get(i);
+            LineType oldType = line.type;
+            parseLine(line);
+            if (i >= firstUnmodifiedLine && line.type == oldType && affectsFollowingLineTypes(line)) {
+                // the following lines are parsed from the same state as before
+                return i;
+            }
+        }
+        return lines.size();
+    }
+
+    /**
+     * Empty, comment and continuation lines do not update {@link #prevLineType}.
+     */
+    private static boolean affectsFollowingLineTypes(RobotLine line) {
+        return !line.arguments.isEmpty() && line.type != LineType.COMMENT_LINE && line.type != LineType.CONTINUATION_LINE;
+    }
+
     // enum State {
     // IGNORE, SETTING_TABLE, VARIABLE_TABLE, TESTCASE_TABLE_INITIAL,
     // TESTCASE_TABLE_ACTIVE, KEYWORD_TABLE_INITIAL, KEYWORD_TABLE_ACTIVE,
@@ -15,76 +15,252 @@
  */
 package com.nitorcreations.robotframework.eclipseide.builder.parser;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
 
 public class RobotFile {
 
     private static final Map<IFile, FileInfo> FILES = Collections.synchronizedMap(new HashMap<IFile, FileInfo>());
+    private static final ParseCache ON_DISK = new ParseCache(ParseCache.DEFAULT_CAPACITY);
 
-    private final List<RobotLine> lines;
+    /**
+     * The lines, until the lines are compacted. See {@link #compact()}.
+     */
+    private volatile List<RobotLine> lines;
+    private volatile CompactLines compactLines;
+    private volatile Reference<List<RobotLine>> expandedLines;
+    private final boolean hasGlobalTestTemplate;
+    /** Set once before the instance is published; see {@link #getModificationStamp()}. */
+    private long modificationStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    /** The hash of the contents of the on-disk version, set once before the instance is published. */
+    private long contentHash;
 
     private RobotFile(List<RobotLine> lines) {
+        this(lines, false);
+    }
+
+    private RobotFile(List<RobotLine> lines, boolean hasGlobalTestTemplate) {
         this.lines = lines;
+        this.hasGlobalTestTemplate = hasGlobalTestTemplate;
+    }
+
+    /**
+     * Creates a saved on-disk version of a file, see {@link ParseCache#restoreFrom(java.io.File)}.
+     */
+    static RobotFile restore(CompactLines compactLines, boolean hasGlobalTestTemplate, long contentHash) {
+        RobotFile robotFile = new RobotFile(null, hasGlobalTestTemplate);
+        robotFile.compactLines = compactLines;
+        robotFile.expandedLines = new SoftReference<List<RobotLine>>(null);
+        robotFile.contentHash = contentHash;
+        return robotFile;
     }
 
     public List<RobotLine> getLines() {
+        List<RobotLine> lines = this.lines;
+        if (lines != null) {
+            return lines;
+        }
+        lines = expandedLines.get();
+        if (lines == null) {
+            lines = compactLines.toLines();
+            expandedLines = new SoftReference<List<RobotLine>>(lines);
+        }
         return lines;
     }
 
+    /**
+     * Stores the lines in compact form, as the on-disk versions of all files in the workspace stay in memory. The line
+     * objects are only kept softly reachable and are created again from the compact form when needed after being
+     * garbage collected. Must be called before the instance is published.
+     */
+    private void compact() {
+        compactLines = new CompactLines(lines);
+        expandedLines = new SoftReference<List<RobotLine>>(lines);
+        lines = null;
+    }
+
+    CompactLines getCompactLines() {
+        return compactLines;
+    }
+
+    boolean hasGlobalTestTemplate() {
+        return hasGlobalTestTemplate;
+    }
+
+    long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return the modification stamp of the document this instance was parsed from, or
+     *         {@link IDocumentExtension4#UNKNOWN_MODIFICATION_STAMP} if not parsed from a document or the document does
+     *         not provide modification stamps
+     */
+    public long getModificationStamp() {
+        return modificationStamp;
+    }
+
+    /**
+     * @return the files with a cached on-disk version, including the files saved before the last restart, and the files
+     *         open in editors
+     */
     public static Collection<IFile> getAllFiles() {
-        // TODO we need to restore this list on plugin startup. The parsed
-        // contents need not be restored.
+        Set<IFile> files = new LinkedHashSet<IFile>(ON_DISK.getFiles());
         synchronized (FILES) {
-            return new ArrayList<IFile>(FILES.keySet());
+            files.addAll(FILES.keySet());
         }
+        return files;
+    }
+
+    /**
+     * @return the cache of the on-disk versions of files
+     */
+    public static ParseCache getOnDiskCache() {
+        return ON_DISK;
     }
 
+    /**
+     * Returns the parse result of the current version of the document. The result is shared by all callers until the
+     * document is modified, so coloring, hyperlinks, content assist and reconciling all use the same result and a
+     * modification causes at most one (incremental) parse.
+     */
     public static RobotFile get(IDocument document) {
-        return get(document, true);
+        return get(document, new NullProgressMonitor());
     }
 
-    public static RobotFile get(IFile file, boolean useEditorVersion) {
-        return get(file, useEditorVersion, true, new NullProgressMonitor());
+    /**
+     * Like {@link #get(IDocument)}, but parsing the document from scratch can be canceled through the given monitor,
+     * so that a canceled reconciler does not keep the other callers waiting.
+     * 
+     * @return the parse result, or <code>null</code> if the monitor was canceled
+     */
+    public static RobotFile get(IDocument document, IProgressMonitor monitor) {
+        IFile file = PluginContext.getResourceManager().resolveFileFor(document);
+        FileInfo fileInfo;
+        synchronized (FILES) {
+            fileInfo = FILES.get(file);
+            if (fileInfo == null) {
+                fileInfo = new FileInfo();
+                FILES.put(file, fileInfo);
+            }
+        }
+        synchronized (fileInfo) {
+            return get(document, file, fileInfo, monitor);
+        }
     }
 
-    public static RobotFile parse(IDocument document) {
-        return get(document, false);
+    public static RobotFile get(IFile file, boolean useEditorVersion) {
+        return get(file, useEditorVersion, true, new NullProgressMonitor());
     }
 
     public static RobotFile parse(IFile file, IProgressMonitor monitor) {
         return get(file, false, false, monitor);
     }
 
-    public static void erase(IFile file) {
-        FileInfo fileInfo = FILES.get(file);
-        if (fileInfo != null) {
-            fileInfo.onDisk = null;
-            if (fileInfo.isEmpty()) {
-                FILES.remove(file);
+    /**
+     * Parses the file from disk, reading its contents once, and caches the result as the on-disk version of the file.
+     * If the contents have not changed since the cache was saved before the last restart, the saved result is used
+     * instead of parsing the contents again.
+     * 
+     * @param timings
+     *            where to accumulate the time spent reading, lexing and pre-parsing
+     * @return the parsed file, or null if the file could not be read or parsing was canceled
+     */
+    public static RobotFile parse(IFile file, IProgressMonitor monitor, BuildTimings timings) {
+        RobotFile parsed;
+        // read before the contents, so that a result is never labeled newer than the contents it was parsed from
+        long modificationStamp = file.getModificationStamp();
+        try {
+            long start = timings.start();
+            String contents = FileContents.read(file);
+            start = timings.stop(BuildTimings.Stage.READ, start);
+            long contentHash = ParseCacheSnapshot.hash(contents);
+            RobotFile restored = ON_DISK.restore(file, contentHash);
+            if (restored != null) {
+                ON_DISK.put(file, restored, modificationStamp);
+                return restored;
             }
+            List<RobotLine> lines = new Lexer(file.toString(), contents, monitor).lex();
+            start = timings.stop(BuildTimings.Stage.LEX, start);
+            if (lines == null) {
+                return null;
+            }
+            parsed = parse(file.toString(), lines);
+            parsed.contentHash = contentHash;
+            timings.stop(BuildTimings.Stage.PRE_PARSE, start);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
         }
+        setOnDisk(file, parsed, modificationStamp);
+        return parsed;
+    }
+
+    /**
+     * Like {@link #parse(IFile, IProgressMonitor, BuildTimings)}, but a newly parsed result is not cached, so that
+     * scanning all files of a project once does not evict the files being worked on from the cache. Cached and saved
+     * results are still used.
+     * 
+     * @return the parsed lines, or null if the file could not be read
+     */
+    public static List<RobotLine> scan(IFile file) {
+        long modificationStamp = file.getModificationStamp();
+        RobotFile cached = ON_DISK.get(file, modificationStamp);
+        if (cached != null) {
+            return cached.getLines();
+        }
+        try {
+            String contents = FileContents.read(file);
+            RobotFile restored = ON_DISK.restore(file, ParseCacheSnapshot.hash(contents));
+            if (restored != null) {
+                ON_DISK.put(file, restored, modificationStamp);
+                return restored.getLines();
+            }
+            List<RobotLine> lines = new Lexer(file.toString(), contents, new NullProgressMonitor()).lex();
+            return parse(file.toString(), lines).getLines();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void erase(IFile file) {
+        ON_DISK.remove(file);
     }
 
     public static void erase(IDocument document) {
         IFile file = PluginContext.getResourceManager().resolveFileFor(document);
         FileInfo fileInfo = FILES.get(file);
         if (fileInfo != null) {
-            fileInfo.inEditor = null;
+            synchronized (fileInfo) {
+                fileInfo.inEditor = null;
+                if (fileInfo.inEditorDamage != null) {
+                    fileInfo.inEditorDamage.detach();
+                    fileInfo.inEditorDamage = null;
+                }
+            }
             if (fileInfo.isEmpty()) {
                 FILES.remove(file);
             }
@@ -95,44 +271,200 @@ public class RobotFile {
         if (useEditorVersion) {
             IDocument document = PluginContext.getResourceManager().resolveDocumentFor(file);
             if (document != null) {
-                return get(document, useCached);
+                return get(document);
             }
         }
         if (!file.exists()) {
             return null;
         }
-        FileInfo fileInfo = FILES.get(file);
-        if (useCached && fileInfo != null && fileInfo.onDisk != null) {
-            return fileInfo.onDisk;
+        if (useCached) {
+            RobotFile cached = ON_DISK.get(file, file.getModificationStamp());
+            if (cached != null) {
+                return cached;
+            }
         }
-        RobotFile parsed;
+        return parse(file, monitor, new BuildTimings());
+    }
+
+    private static void setOnDisk(IFile file, RobotFile parsed, long modificationStamp) {
+        parsed.compact();
+        ON_DISK.put(file, parsed, modificationStamp);
+    }
+
+    /**
+     * Once a document has been parsed, its modifications are tracked and only the modified lines are lexed again on
+     * subsequent calls.
+     */
+    private static RobotFile get(IDocument document, IFile file, FileInfo fileInfo, IProgressMonitor monitor) {
+        // read before the contents, so that a result is never labeled newer than the contents it was parsed from
+        long modificationStamp = getModificationStamp(document);
+        DocumentDamage damage = fileInfo.inEditorDamage;
+        if (fileInfo.inEditor != null && damage != null && damage.isFor(document)) {
+            boolean upToDate;
+            if (modificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+                // any damage recorded is from a modification about to happen
+                upToDate = modificationStamp == fileInfo.inEditor.modificationStamp;
+            } else {
+                upToDate = damage.isEmpty();
+            }
+            if (upToDate) {
+                return fileInfo.inEditor;
+            }
+            if (!damage.isEmpty()) {
+                RobotFile parsed = reparse(file.toString(), fileInfo.inEditor, damage);
+                if (parsed != null) {
+                    parsed.modificationStamp = modificationStamp;
+                    fileInfo.inEditor = parsed;
+                    return parsed;
+                }
+            }
+        }
+        if (fileInfo.inEditorDamage == null || !fileInfo.inEditorDamage.isFor(document)) {
+            if (fileInfo.inEditorDamage != null) {
+                fileInfo.inEditorDamage.detach();
+            }
+            fileInfo.inEditorDamage = new DocumentDamage(document);
+            fileInfo.inEditorDamage.attach();
+        }
+        String contents = fileInfo.inEditorDamage.clearAndGetContents();
+        RobotFile parsed = parse(file.toString(), new Lexer(file.toString(), contents, monitor));
+        if (parsed == null) {
+            // the damage has been cleared, so the previous result cannot be brought up to date anymore
+            fileInfo.inEditor = null;
+            return null;
+        }
+        parsed.modificationStamp = modificationStamp;
+        fileInfo.inEditor = parsed;
+        return parsed;
+    }
+
+    private static long getModificationStamp(IDocument document) {
+        if (document instanceof IDocumentExtension4) {
+            return ((IDocumentExtension4) document).getModificationStamp();
+        }
+        return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
+
+    static RobotFile reparse(String filename, RobotFile previous, DocumentDamage damage) {
         try {
-            parsed = parse(file.toString(), new Lexer(file, monitor));
-        } catch (Exception e) {
+            List<RobotLine> lines = damage.relex(filename, previous.getLines());
+            if (lines == null) {
+                return null;
+            }
+            // re-lexed lines have no type yet
+            int firstModifiedLine = 0;
+            while (firstModifiedLine < lines.size() && lines.get(firstModifiedLine).type != null) {
+                ++firstModifiedLine;
+            }
+            int firstUnmodifiedLine = firstModifiedLine + 1;
+            while (firstUnmodifiedLine < lines.size() && lines.get(firstUnmodifiedLine).type == null) {
+                ++firstUnmodifiedLine;
+            }
+            int firstUnchangedLine = new PreParser(filename, lines).preParseModified(firstModifiedLine, firstUnmodifiedLine);
+            ArgumentPreParser app = new ArgumentPreParser();
+            app.setRange(lines);
+            app.parseModified(firstModifiedLine, Math.max(firstUnmodifiedLine, firstUnchangedLine), previous.hasGlobalTestTemplate);
+            return new RobotFile(lines, app.hasGlobalTestTemplate());
+        } catch (CoreException e) {
+            e.printStackTrace();
+        } catch (RuntimeException e) {
             e.printStackTrace();
-            return null;
         }
-        if (fileInfo == null) {
-            fileInfo = new FileInfo();
-            FILES.put(file, fileInfo);
+        return null;
+    }
+
+    /**
+     * Parses a single line of this file again as if it had the given contents, without modifying the parsed lines.
+     * Only the lines from the last checkpoint before the line up to the first checkpoint after it are parsed again, as
+     * copies, so the cost does not depend on the size of the file. See {@link ArgumentPreParser#isCheckpoint(RobotLine)}.
+     * 
+     * @param lineNo
+     *            the index of the line to parse again
+     * @param lineContents
+     *            the new contents of the line, without the line terminator
+     * @return the line parsed from the new contents, with line and argument types
+     */
+    public RobotLine reparseLine(String filename, int lineNo, String lineContents) {
+        List<RobotLine> lines = getLines();
+        RobotLine oldLine = lines.get(lineNo);
+        int windowStart = 0;
+        for (int i = lineNo - 1; i > 0; --i) {
+            if (ArgumentPreParser.isCheckpoint(lines.get(i))) {
+                windowStart = i;
+                break;
+            }
+        }
+        int windowEnd = lineNo + 1;
+        while (windowEnd < lines.size() && !ArgumentPreParser.isCheckpoint(lines.get(windowEnd))) {
+            ++windowEnd;
+        }
+        List<RobotLine> window = new ArrayList<RobotLine>(windowEnd - windowStart);
+        for (int i = windowStart; i < windowEnd; ++i) {
+            window.add(lines.get(i).copyShiftedBy(0, 0));
+        }
+        try {
+            RobotLine newLine = new Lexer(filename, lineContents, oldLine.lineNo, oldLine.lineCharPos).lex().get(0);
+            window.set(lineNo - windowStart, newLine);
+            new PreParser(filename, window).preParseModified(lineNo - windowStart, lineNo - windowStart + 1);
+            List<RobotLine> windowedLines = new WindowedLines(lines, window, windowStart);
+            boolean hasGlobalTestTemplate = this.hasGlobalTestTemplate;
+            if (isGlobalTestTemplate(newLine)) {
+                hasGlobalTestTemplate = true;
+            } else if (isGlobalTestTemplate(oldLine)) {
+                // another line may still set a template
+                hasGlobalTestTemplate = hasGlobalTestTemplate(windowedLines);
+            }
+            ArgumentPreParser app = new ArgumentPreParser();
+            app.setRange(windowedLines);
+            // the same as after parsing, so that parsing stops at the end of the window
+            app.parseModified(lineNo, lineNo + 1, hasGlobalTestTemplate, hasGlobalTestTemplate);
+            return newLine;
+        } catch (CoreException e) {
+            throw new RuntimeException("Internal error when reparsing line " + lineNo + " of " + filename, e);
         }
-        fileInfo.onDisk = parsed;
-        return parsed;
     }
 
-    private static RobotFile get(IDocument document, boolean useCached) {
-        IFile file = PluginContext.getResourceManager().resolveFileFor(document);
-        FileInfo fileInfo = FILES.get(file);
-        if (useCached && fileInfo != null && fileInfo.inEditor != null) {
-            return fileInfo.inEditor;
+    private static boolean hasGlobalTestTemplate(List<RobotLine> lines) {
+        for (RobotLine line : lines) {
+            if (isGlobalTestTemplate(line)) {
+                return true;
+            }
         }
-        RobotFile parsed = parse(file.toString(), new Lexer(document));
-        if (fileInfo == null) {
-            fileInfo = new FileInfo();
-            FILES.put(file, fileInfo);
+        return false;
+    }
+
+    private static boolean isGlobalTestTemplate(RobotLine line) {
+        return line.isType(LineType.SETTING_TABLE_LINE) && line.arguments.get(0).getValue().equals("Test Template");
+    }
+
+    /**
+     * The lines of a file with a range of lines replaced by copies, for parsing the copies in the context of the file.
+     * The lines outside the range are only read.
+     */
+    private static final class WindowedLines extends AbstractList<RobotLine> {
+        private final List<RobotLine> lines;
+        private final List<RobotLine> window;
+        private final int windowStart;
+
+        WindowedLines(List<RobotLine> lines, List<RobotLine> window, int windowStart) {
+            this.lines = lines;
+            this.window = window;
+            this.windowStart = windowStart;
+        }
+
+        @Override
+        public RobotLine get(int index) {
+            int windowIndex = index - windowStart;
+            if (windowIndex >= 0 && windowIndex < window.size()) {
+                return window.get(windowIndex);
+            }
+            return lines.get(index);
+        }
+
+        @Override
+        public int size() {
+            return lines.size();
         }
-        fileInfo.inEditor = parsed;
-        return parsed;
     }
 
     public static RobotFile parse(String fileContents) {
@@ -146,17 +478,41 @@ public class RobotFile {
         return new RobotFile(Collections.<RobotLine> emptyList());
     }
 
+    /**
+     * For validating files outside of an Eclipse workspace. The result is not cached.
+     * 
+     * @param file
+     *            the file to parse
+     * @param charset
+     *            the charset to read the file in
+     * @throws CoreException
+     *             if the file could not be parsed; unlike in the editor, an empty result would hide the failure
+     */
+    public static RobotFile parse(File file, String charset) throws IOException, CoreException {
+        return parse(file.getPath(), new Lexer(file, charset).lex());
+    }
+
+    /**
+     * @return the parse result, or <code>null</code> if the lexer was canceled
+     */
     private static RobotFile parse(String filename, Lexer lexer) {
         try {
             List<RobotLine> lines = lexer.lex(); // split input into lines & arguments
-            new PreParser(filename, lines).preParse(); // determine line types
-            ArgumentPreParser app = new ArgumentPreParser();
-            app.setRange(lines);
-            app.parseAll(); // determine argument types
-            return new RobotFile(lines);
+            if (lines == null) {
+                return null;
+            }
+            return parse(filename, lines);
         } catch (CoreException e) {
             e.printStackTrace();
         }
         return new RobotFile(Collections.<RobotLine> emptyList());
     }
+
+    private static RobotFile parse(String filename, List<RobotLine> lines) throws CoreException {
+        new PreParser(filename, lines).preParse(); // determine line types
+        ArgumentPreParser app = new ArgumentPreParser();
+        app.setRange(lines);
+        app.parseAll(); // determine argument types
+        return new RobotFile(lines, app.hasGlobalTestTemplate());
+    }
 }
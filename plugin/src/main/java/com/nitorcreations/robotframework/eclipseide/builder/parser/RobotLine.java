@@ -15,6 +15,8 @@
  */
 package com.nitorcreations.robotframework.eclipseide.builder.parser;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
@@ -32,6 +34,25 @@ public class RobotLine {
         this.arguments = arguments;
     }
 
+    /**
+     * Creates a copy of this line moved by the given amount of lines and characters. The line and argument types are
+     * copied as well, so that the pre-parsers can tell which lines are affected by a modification.
+     */
+    public RobotLine copyShiftedBy(int lineNoDelta, int charPosDelta) {
+        RobotLine shifted;
+        if (arguments.isEmpty()) {
+            shifted = new RobotLine(lineNo + lineNoDelta, lineCharPos + charPosDelta, Collections.<ParsedString> emptyList());
+        } else {
+            List<ParsedString> shiftedArguments = new ArrayList<ParsedString>(arguments.size());
+            for (ParsedString argument : arguments) {
+                shiftedArguments.add(argument.copyShiftedBy(charPosDelta));
+            }
+            shifted = new RobotLine(lineNo + lineNoDelta, lineCharPos + charPosDelta, shiftedArguments);
+        }
+        shifted.type = type;
+        return shifted;
+    }
+
     public boolean isType(LineType type) {
         return this.type == type;
     }
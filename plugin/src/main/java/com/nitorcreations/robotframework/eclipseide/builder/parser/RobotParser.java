@@ -31,6 +31,7 @@ import com.nitorcreations.robotframework.eclipseide.builder.parser.state.State;
 import com.nitorcreations.robotframework.eclipseide.builder.util.FileMarkerManager;
 import com.nitorcreations.robotframework.eclipseide.builder.util.MarkerManager;
 import com.nitorcreations.robotframework.eclipseide.builder.util.NullMarkerManager;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 import com.nitorcreations.robotframework.eclipseide.structure.KeywordSequence;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 import com.nitorcreations.robotframework.eclipseide.structure.RobotFileContents;
@@ -77,10 +78,22 @@ public class RobotParser {
      * @throws CoreException
      */
     public RobotParser(final IFile file, List<RobotLine> lexLines, IProgressMonitor monitor) throws UnsupportedEncodingException, CoreException {
+        this(file, lexLines, monitor, new FileMarkerManager(file));
+    }
+
+    /**
+     * For files being "compiled" from disk, with markers managed by the caller.
+     * 
+     * @param file
+     * @param monitor
+     * @param markerManager
+     *            for managing markers
+     */
+    public RobotParser(final IFile file, List<RobotLine> lexLines, IProgressMonitor monitor, MarkerManager markerManager) {
         this.filename = file.toString();
         this.lexLines = lexLines;
         this.monitor = monitor == null ? new NullProgressMonitor() : monitor;
-        this.markerManager = new FileMarkerManager(file);
+        this.markerManager = markerManager;
     }
 
     /**
@@ -116,7 +129,9 @@ public class RobotParser {
 
     public IRobotFileContents parse() throws CoreException {
         try {
-            System.out.println("Parsing " + filename);
+            if (Trace.PARSER) {
+                Trace.trace("Parsing " + filename);
+            }
             markerManager.eraseMarkers();
             for (RobotLine line : lexLines) {
                 if (monitor.isCanceled()) {
@@ -142,11 +157,13 @@ public class RobotParser {
         if (arguments.isEmpty()) {
             return;
         }
-        System.out.println(arguments);
+        if (Trace.PARSER_LINES) {
+            Trace.trace(lineNo + ": " + arguments);
+        }
         State oldState = state;
         state.parse(new ParsedLineInfo(this, arguments, lineNo, charPos));
-        if (oldState != state) {
-            System.out.println("State " + oldState + " -> " + state);
+        if (Trace.PARSER_LINES && oldState != state) {
+            Trace.trace("State " + oldState + " -> " + state);
         }
     }
 
@@ -18,15 +18,11 @@ package com.nitorcreations.robotframework.eclipseide.builder.parser;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 
 public class TxtArgumentSplitter {
 
-    private static final Pattern SEPARATOR_RE = Pattern.compile("(?:\t| [ \t])[ \t]*");
-
     /**
      * Splits a line from a robot TXT file into arguments. Only supports the tab-or-multiple-whitespace separator right
      * now.
@@ -37,56 +33,96 @@ public class TxtArgumentSplitter {
      * @return
      */
     static List<ParsedString> splitLineIntoArguments(String line, int charPos) {
-        String origLine = line;
+        char[] chars = line.toCharArray();
+        return splitLineIntoArguments(chars, 0, chars.length, charPos);
+    }
+
+    /**
+     * Splits a line from a robot TXT file into arguments in a single pass over the characters. Only supports the
+     * tab-or-multiple-whitespace separator right now. The values of the arguments are created from the buffer only when
+     * needed, so the buffer must not be modified afterwards.
+     * 
+     * @param buf
+     *            the buffer containing the line
+     * @param start
+     *            the start offset of the line in the buffer
+     * @param end
+     *            the end offset of the line in the buffer, excluding the line terminator
+     * @param charPos
+     *            the file character position of the first character of the line
+     * @return
+     */
+    static List<ParsedString> splitLineIntoArguments(char[] buf, int start, int end, int charPos) {
         // remove trailing empty cells and whitespace
-        line = rtrim(line);
-        if (line == null) {
+        int trimmedEnd = rtrim(buf, start, end);
+        if (trimmedEnd == start) {
             return Collections.emptyList();
         }
 
         // split line by tab-or-multiwhitespace
-        Matcher m = SEPARATOR_RE.matcher(line);
         List<ParsedString> arguments = new ArrayList<ParsedString>();
-        int lastEnd = 0;
+        int cellStart = start;
         for (int argumentIndex = 0;; ++argumentIndex) {
             // if next cell starts with #, the rest of the line is a comment
-            boolean isComment = lastEnd < line.length() && line.charAt(lastEnd) == '#';
-            boolean isLastArgument = isComment || !m.find();
-            int nextStart = !isLastArgument ? m.start() : line.length();
-            if (lastEnd == 0 && nextStart > 0 && line.charAt(0) == ' ') {
+            boolean isComment = buf[cellStart] == '#';
+            int separatorStart = isComment ? trimmedEnd : findSeparator(buf, cellStart, trimmedEnd);
+            boolean isLastArgument = separatorStart == trimmedEnd;
+            int valueStart = cellStart;
+            if (cellStart == start && separatorStart > start && buf[start] == ' ') {
                 /*
                  * spec says all arguments are trimmed - this is the only case when additional trimming is needed.
                  */
-                ++lastEnd;
+                ++valueStart;
             }
-            ParsedString parsedString = new ParsedString(line.substring(lastEnd, nextStart), charPos + lastEnd, argumentIndex);
-            int nextLen = (!isLastArgument ? m.end() : origLine.length()) - nextStart;
-            if (nextLen >= 1 && origLine.charAt(nextStart) == ' ') {
+            ParsedString parsedString = new ParsedString(buf, valueStart, separatorStart - valueStart, charPos + valueStart - start, argumentIndex);
+            int separatorEnd = isLastArgument ? end : skipWhitespace(buf, separatorStart + 1, trimmedEnd);
+            if (separatorEnd > separatorStart && buf[separatorStart] == ' ') {
                 parsedString.setHasSpaceAfter(true);
             }
             arguments.add(parsedString);
             if (isLastArgument) {
-                // last argument
                 break;
             }
-            lastEnd = m.end();
+            cellStart = separatorEnd;
         }
         return arguments;
     }
 
-    static String rtrim(String line) {
-        int epos = line.length() - 1;
-        while (epos >= 0) {
-            switch (line.charAt(epos)) {
-                case ' ':
+    /**
+     * @return the start of the first tab or two consecutive whitespace characters, or <code>end</code> if none
+     */
+    private static int findSeparator(char[] buf, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            switch (buf[i]) {
                 case '\t':
+                    return i;
+                case ' ':
+                    if (i + 1 < end && (buf[i + 1] == ' ' || buf[i + 1] == '\t')) {
+                        return i;
+                    }
                     break;
-                default:
-                    return line.substring(0, epos + 1);
             }
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(char[] buf, int start, int end) {
+        int i = start;
+        while (i < end && (buf[i] == ' ' || buf[i] == '\t')) {
+            ++i;
+        }
+        return i;
+    }
+
+    /**
+     * @return the end of the line without trailing whitespace, or <code>start</code> if the line is empty
+     */
+    private static int rtrim(char[] buf, int start, int end) {
+        int epos = end;
+        while (epos > start && (buf[epos - 1] == ' ' || buf[epos - 1] == '\t')) {
             --epos;
         }
-        return null; // empty line
+        return epos;
     }
 
 }
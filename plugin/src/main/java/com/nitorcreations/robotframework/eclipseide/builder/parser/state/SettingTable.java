@@ -21,6 +21,7 @@ import org.eclipse.core.runtime.CoreException;
 
 import com.nitorcreations.robotframework.eclipseide.builder.parser.ParsedLineInfo;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.SeverityConfig;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 import com.nitorcreations.robotframework.eclipseide.structure.DynamicParsedString;
 import com.nitorcreations.robotframework.eclipseide.structure.KeywordCall;
 import com.nitorcreations.robotframework.eclipseide.structure.LibraryFile;
@@ -83,7 +84,9 @@ public class SettingTable extends State {
             return;
         }
         ParsedString resource = info.arguments.get(1);
-        System.out.println("Load resource file " + resource);
+        if (Trace.PARSER) {
+            Trace.trace("Load resource file " + resource);
+        }
         boolean success = info.fc().getSettingsInt().addResourceFile(resource.splitRegularArgument());
         if (!success) {
             addWarning(info, "Duplicate resource file", resource.getArgCharPos(), resource.getArgEndCharPos());
@@ -98,7 +101,9 @@ public class SettingTable extends State {
             return;
         }
         ParsedString varFile = info.arguments.get(1);
-        System.out.println("Load variable file " + varFile);
+        if (Trace.PARSER) {
+            Trace.trace("Load variable file " + varFile);
+        }
         List<DynamicParsedString> arguments = splitRegularArguments(info, 2, 0);
         boolean success = info.fc().getSettingsInt().addVariableFile(varFile.splitRegularArgument(), arguments);
         if (!success) {
@@ -113,7 +118,9 @@ public class SettingTable extends State {
             return;
         }
         ParsedString library = info.arguments.get(1);
-        System.out.println("Load library " + library);
+        if (Trace.PARSER) {
+            Trace.trace("Load library " + library);
+        }
         LibraryFile libraryFile = new LibraryFile();
         libraryFile.setRealName(library.splitRegularArgument());
         boolean hasCustomName = info.arguments.size() >= 4 && info.arguments.get(info.arguments.size() - 2).getValue().equalsIgnoreCase("WITH NAME");
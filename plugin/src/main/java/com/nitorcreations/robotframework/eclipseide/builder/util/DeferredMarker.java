@@ -0,0 +1,150 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * A marker that only records its type and attributes. See {@link DeferredMarkerManager}.
+ */
+public class DeferredMarker implements IMarker {
+    private final String type;
+    private final Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+
+    public DeferredMarker(String type) {
+        this.type = type;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Object getAdapter(Class adapter) {
+        return null;
+    }
+
+    @Override
+    public void delete() throws CoreException {}
+
+    @Override
+    public boolean exists() {
+        return false;
+    }
+
+    @Override
+    public Object getAttribute(String attributeName) {
+        return attributes.get(attributeName);
+    }
+
+    @Override
+    public int getAttribute(String attributeName, int defaultValue) {
+        Object value = attributes.get(attributeName);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    @Override
+    public String getAttribute(String attributeName, String defaultValue) {
+        Object value = attributes.get(attributeName);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    @Override
+    public boolean getAttribute(String attributeName, boolean defaultValue) {
+        Object value = attributes.get(attributeName);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Object[] getAttributes(String[] attributeNames) {
+        Object[] values = new Object[attributeNames.length];
+        for (int i = 0; i < attributeNames.length; ++i) {
+            values[i] = attributes.get(attributeNames[i]);
+        }
+        return values;
+    }
+
+    @Override
+    public long getCreationTime() throws CoreException {
+        return 0;
+    }
+
+    @Override
+    public long getId() {
+        return 0;
+    }
+
+    @Override
+    public IResource getResource() {
+        return null;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public boolean isSubtypeOf(String superType) throws CoreException {
+        return type.equals(superType);
+    }
+
+    @Override
+    public void setAttribute(String attributeName, int value) {
+        attributes.put(attributeName, value);
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object value) {
+        if (value == null) {
+            attributes.remove(attributeName);
+        } else {
+            attributes.put(attributeName, value);
+        }
+    }
+
+    @Override
+    public void setAttribute(String attributeName, boolean value) {
+        attributes.put(attributeName, value);
+    }
+
+    @Override
+    public void setAttributes(String[] attributeNames, Object[] values) {
+        for (int i = 0; i < attributeNames.length; ++i) {
+            setAttribute(attributeNames[i], values[i]);
+        }
+    }
+
+    @Override
+    public void setAttributes(Map<String, ? extends Object> attributes) {
+        this.attributes.clear();
+        if (attributes != null) {
+            this.attributes.putAll(attributes);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + attributes;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+import com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder;
+
+/**
+ * Collects the markers created while parsing a file, to be applied to the file with {@link #apply()} later, e.g. after
+ * parsing the file in a thread that must not modify the workspace. Only the differences to the existing markers of the
+ * file are applied, so that re-validating an unchanged file does not touch its markers at all.
+ */
+public class DeferredMarkerManager implements MarkerManager {
+    private final IFile file;
+    private final List<DeferredMarker> markers = new ArrayList<DeferredMarker>();
+    private boolean erase;
+
+    public DeferredMarkerManager(IFile file) {
+        this.file = file;
+    }
+
+    public IFile getFile() {
+        return file;
+    }
+
+    public List<DeferredMarker> getMarkers() {
+        return markers;
+    }
+
+    @Override
+    public IMarker createMarker(String type) throws CoreException {
+        DeferredMarker marker = new DeferredMarker(type);
+        markers.add(marker);
+        return marker;
+    }
+
+    @Override
+    public void eraseMarkers() {
+        erase = true;
+        markers.clear();
+    }
+
+    /**
+     * Must be called from a workspace operation, preferably one covering all files built, so that the changes are
+     * reported in a single resource change event.
+     */
+    public void apply() throws CoreException {
+        Map<Map<String, Object>, Integer> keptMarkers = new HashMap<Map<String, Object>, Integer>();
+        if (erase) {
+            IMarker[] existingMarkers = file.findMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO);
+            if (existingMarkers != null && existingMarkers.length > 0) {
+                Map<Map<String, Object>, Integer> unmatchedMarkers = countMarkersByAttributes();
+                for (IMarker existingMarker : existingMarkers) {
+                    Map<String, Object> attributes = existingMarker.getAttributes();
+                    if (decrement(unmatchedMarkers, attributes)) {
+                        increment(keptMarkers, attributes);
+                    } else {
+                        existingMarker.delete();
+                    }
+                }
+            }
+        }
+        for (DeferredMarker marker : markers) {
+            if (marker.getType().equals(RobotBuilder.MARKER_TYPE) && decrement(keptMarkers, marker.getAttributes())) {
+                continue;
+            }
+            file.createMarker(marker.getType()).setAttributes(marker.getAttributes());
+        }
+    }
+
+    /**
+     * @return the number of new markers of {@link RobotBuilder#MARKER_TYPE} with each set of attributes
+     */
+    private Map<Map<String, Object>, Integer> countMarkersByAttributes() {
+        Map<Map<String, Object>, Integer> counts = new HashMap<Map<String, Object>, Integer>();
+        for (DeferredMarker marker : markers) {
+            if (marker.getType().equals(RobotBuilder.MARKER_TYPE)) {
+                increment(counts, marker.getAttributes());
+            }
+        }
+        return counts;
+    }
+
+    private static void increment(Map<Map<String, Object>, Integer> counts, Map<String, Object> attributes) {
+        Integer count = counts.get(attributes);
+        counts.put(attributes, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * @return false if the count was already zero
+     */
+    private static boolean decrement(Map<Map<String, Object>, Integer> counts, Map<String, Object> attributes) {
+        Integer count = counts.get(attributes);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            counts.remove(attributes);
+        } else {
+            counts.put(attributes, count - 1);
+        }
+        return true;
+    }
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.text.rules.IToken;
@@ -45,6 +46,8 @@ public class ColoringScanner implements ITokenScanner {
     private RobotLine line;
     private int argOff;
     private int argLen;
+    private int rangeStart;
+    private int rangeEnd;
 
     // private RFELine lastParsedLine;
 
@@ -86,10 +89,22 @@ public class ColoringScanner implements ITokenScanner {
     public void setRange(IDocument document, int offset, int length) {
         prepareTokens();
         // this.document = document;
-        tokenQueue.reset();
-        lines = RobotFile.parse(document).getLines();
-        lineIterator = lines.listIterator();
+        tokenQueue.reset(offset);
+        rangeStart = offset;
+        rangeEnd = offset + length;
+        lines = RobotFile.get(document).getLines();
+        int firstLine;
+        try {
+            firstLine = Math.min(document.getLineOfOffset(offset), lines.size());
+        } catch (BadLocationException e) {
+            firstLine = 0;
+        }
+        lineIterator = lines.listIterator(firstLine);
         prepareNextLine();
+        // skip arguments preceding the range
+        while (line != null && line.arguments.get(argOff).getArgEndCharPos() <= rangeStart) {
+            prepareNextToken();
+        }
     }
 
     void prepareNextToken() {
@@ -157,9 +172,18 @@ public class ColoringScanner implements ITokenScanner {
         // TODO merge successive arguments with same type into one token, even
         // spanning multiple lines
         ParsedString arg = line.arguments.get(argOff);
+        int argStart = Math.max(arg.getArgCharPos(), rangeStart);
+        if (argStart >= rangeEnd) {
+            // rest of the document is outside the range
+            line = null;
+            lines = null;
+            lineIterator = null;
+            tokenQueue.addEof();
+            return;
+        }
         IToken token = argTypeToTokenMap.get(arg.getType());
         if (token != null) {
-            tokenQueue.add(arg, token);
+            tokenQueue.add(argStart, Math.min(arg.getArgEndCharPos(), rangeEnd), token);
         }
         prepareNextToken();
     }
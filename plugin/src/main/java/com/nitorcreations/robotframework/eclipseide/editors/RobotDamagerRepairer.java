@@ -0,0 +1,162 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.editors;
+
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.rules.DefaultDamagerRepairer;
+import org.eclipse.jface.text.rules.ITokenScanner;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
+/**
+ * Damages only the modified lines and the lines whose argument types changed as a result of the modification, instead
+ * of the whole document.
+ * <p>
+ * In deferred mode, modifications cause no damage at all; instead {@link RobotReconcilingStrategy} parses the document
+ * in the background and reports the new lines through {@link #presentationChanged(List, int)}.
+ */
+public class RobotDamagerRepairer extends DefaultDamagerRepairer {
+
+    /** The lines the presentation of the document is currently based on, or null if unknown. */
+    private List<RobotLine> presentedLines;
+
+    private boolean deferred;
+
+    public RobotDamagerRepairer(ITokenScanner scanner) {
+        super(scanner);
+    }
+
+    @Override
+    public void setDocument(IDocument document) {
+        super.setDocument(document);
+        presentedLines = null;
+    }
+
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Called in the UI thread when the document has been parsed in the background.
+     * 
+     * @return the region to re-color, or null if nothing needs to be re-colored
+     */
+    public IRegion presentationChanged(List<RobotLine> lines, int documentLength) {
+        List<RobotLine> previousLines = presentedLines;
+        presentedLines = lines;
+        if (previousLines == null || previousLines.isEmpty() || lines.isEmpty()) {
+            return new Region(0, documentLength);
+        }
+        // the last line is either changed itself or moved by the total change in document length
+        int charPosDelta = lines.get(lines.size() - 1).lineCharPos - previousLines.get(previousLines.size() - 1).lineCharPos;
+        int[] changedLines = getLinesWithChangedArguments(previousLines, lines, charPosDelta);
+        if (changedLines == null) {
+            return null;
+        }
+        return getRegion(lines, changedLines[0], changedLines[1], documentLength);
+    }
+
+    @Override
+    public IRegion getDamageRegion(ITypedRegion partition, DocumentEvent e, boolean documentPartitioningChanged) {
+        if (deferred) {
+            return new Region(e.getOffset(), 0);
+        }
+        List<RobotLine> previousLines = presentedLines;
+        List<RobotLine> lines = RobotFile.get(e.getDocument()).getLines();
+        presentedLines = lines;
+        if (previousLines == null || documentPartitioningChanged || lines.isEmpty()) {
+            return partition;
+        }
+        String text = e.getText();
+        int textLength = text == null ? 0 : text.length();
+        IDocument document = e.getDocument();
+        int firstLine;
+        int lastLine;
+        try {
+            firstLine = document.getLineOfOffset(e.getOffset());
+            lastLine = document.getLineOfOffset(e.getOffset() + textLength);
+        } catch (BadLocationException ex) {
+            return partition;
+        }
+        if (lastLine >= lines.size()) {
+            return partition;
+        }
+        int[] changedLines = getLinesWithChangedArguments(previousLines, lines, textLength - e.getLength());
+        if (changedLines != null) {
+            firstLine = Math.min(firstLine, changedLines[0]);
+            lastLine = Math.max(lastLine, changedLines[1]);
+        }
+        IRegion damage = getRegion(lines, firstLine, lastLine, document.getLength());
+        int start = Math.max(damage.getOffset(), partition.getOffset());
+        int end = Math.min(damage.getOffset() + damage.getLength(), partition.getOffset() + partition.getLength());
+        return new Region(start, Math.max(0, end - start));
+    }
+
+    private static IRegion getRegion(List<RobotLine> lines, int firstLine, int lastLine, int documentLength) {
+        int start = lines.get(firstLine).lineCharPos;
+        int end = lastLine + 1 < lines.size() ? lines.get(lastLine + 1).lineCharPos : documentLength;
+        return new Region(start, end - start);
+    }
+
+    /**
+     * Compares the lines of a document before and after a modification, from both ends, to find the range of lines
+     * that need to be colored again.
+     * 
+     * @param charPosDelta
+     *            the change in document length caused by the modification
+     * @return the indices of the first and last changed line in <code>newLines</code>, or null if no line changed
+     */
+    static int[] getLinesWithChangedArguments(List<RobotLine> oldLines, List<RobotLine> newLines, int charPosDelta) {
+        int commonLines = Math.min(oldLines.size(), newLines.size());
+        int first = 0;
+        while (first < commonLines && isPresentedSame(oldLines.get(first), newLines.get(first), 0)) {
+            ++first;
+        }
+        int oldLast = oldLines.size() - 1;
+        int newLast = newLines.size() - 1;
+        while (oldLast >= first && newLast >= first && isPresentedSame(oldLines.get(oldLast), newLines.get(newLast), charPosDelta)) {
+            --oldLast;
+            --newLast;
+        }
+        if (newLast < first) {
+            return null;
+        }
+        return new int[] { first, newLast };
+    }
+
+    private static boolean isPresentedSame(RobotLine oldLine, RobotLine newLine, int charPosDelta) {
+        if (newLine.lineCharPos - oldLine.lineCharPos != charPosDelta || oldLine.arguments.size() != newLine.arguments.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldLine.arguments.size(); ++i) {
+            ParsedString oldArgument = oldLine.arguments.get(i);
+            ParsedString newArgument = newLine.arguments.get(i);
+            if (oldArgument.getType() != newArgument.getType() || newArgument.getArgCharPos() - oldArgument.getArgCharPos() != charPosDelta || !oldArgument.getValue().equals(newArgument.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
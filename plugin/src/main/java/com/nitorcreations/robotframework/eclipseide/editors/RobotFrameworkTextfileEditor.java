@@ -32,6 +32,7 @@ import org.eclipse.ui.texteditor.ChainedPreferenceStore;
 import com.nitorcreations.robotframework.eclipseide.Activator;
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.internal.util.Trace;
 
 /**
  * https://robotframework.googlecode.com/hg/doc/userguide/ RobotFrameworkUserGuide.html?r=2.6.1 http:/
@@ -71,7 +72,9 @@ public class RobotFrameworkTextfileEditor extends TextEditor {
 
     private void handleOpenDocument() throws CoreException {
         IDocument document = getEditedDocument();
-        System.out.println("Opened document " + getEditorInput() + " -> " + document);
+        if (Trace.EDITOR) {
+            Trace.trace("Opened document " + getEditorInput() + " -> " + document);
+        }
         ensureRFSupportedLineEndings(document);
         PluginContext.getResourceManager().registerEditor(this);
     }
@@ -90,7 +93,9 @@ public class RobotFrameworkTextfileEditor extends TextEditor {
     }
 
     private void handleCloseDocument(IEditorInput old) {
-        System.out.println("Closing document " + old);
+        if (Trace.EDITOR) {
+            Trace.trace("Closing document " + old);
+        }
         PluginContext.getResourceManager().unregisterEditor(this);
         RobotFile.erase(getEditedDocument());
     }
@@ -15,31 +15,23 @@
  */
 package com.nitorcreations.robotframework.eclipseide.editors;
 
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
-import org.eclipse.jface.text.ITypedRegion;
 import org.eclipse.jface.text.presentation.PresentationReconciler;
-import org.eclipse.jface.text.rules.DefaultDamagerRepairer;
 import org.eclipse.jface.text.rules.ITokenScanner;
 
-import com.nitorcreations.robotframework.eclipseide.PluginContext;
-
 public class RobotPresentationReconciler extends PresentationReconciler {
 
+    private final RobotDamagerRepairer damagerRepairer;
+
     public RobotPresentationReconciler(ColorManager colorManager) {
         ITokenScanner coloringScanner = new ColoringScanner(colorManager);
-        DefaultDamagerRepairer dr = new DefaultDamagerRepairer(coloringScanner) {
-            @Override
-            public IRegion getDamageRegion(ITypedRegion partition, DocumentEvent e, boolean documentPartitioningChanged) {
-                System.out.println("Document " + PluginContext.getResourceManager().resolveFileFor(e.getDocument()) + " region changed: " + e);
-                // force damaging entire document for now; we don't support
-                // partial reparsing just yet
-                return partition;
-            }
-        };
-        setDamager(dr, IDocument.DEFAULT_CONTENT_TYPE);
-        setRepairer(dr, IDocument.DEFAULT_CONTENT_TYPE);
+        damagerRepairer = new RobotDamagerRepairer(coloringScanner);
+        setDamager(damagerRepairer, IDocument.DEFAULT_CONTENT_TYPE);
+        setRepairer(damagerRepairer, IDocument.DEFAULT_CONTENT_TYPE);
+    }
+
+    public RobotDamagerRepairer getDamagerRepairer() {
+        return damagerRepairer;
     }
 
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.editors;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension2;
+import org.eclipse.jface.text.reconciler.DirtyRegion;
+import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
+import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
+import org.eclipse.swt.widgets.Control;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+
+/**
+ * Parses the edited document in the background thread of the reconciler, and then re-colors the lines whose argument
+ * types changed. This way the UI thread does not need to parse the document while the user is typing.
+ * <p>
+ * The reconciler cancels the progress monitor when the document is modified during reconciling. The monitor is passed
+ * on to the parser, so that a parse from scratch stops early instead of keeping the UI thread waiting for the shared
+ * result. A cancelled or outdated result is not published, since the modification triggers another reconcile.
+ */
+public class RobotReconcilingStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension {
+
+    private final ITextViewer viewer;
+    private final RobotDamagerRepairer damagerRepairer;
+    private volatile IDocument document;
+    private volatile IProgressMonitor monitor = new NullProgressMonitor();
+
+    public RobotReconcilingStrategy(ITextViewer viewer, RobotDamagerRepairer damagerRepairer) {
+        this.viewer = viewer;
+        this.damagerRepairer = damagerRepairer;
+    }
+
+    @Override
+    public void setDocument(IDocument document) {
+        this.document = document;
+    }
+
+    @Override
+    public void setProgressMonitor(IProgressMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void initialReconcile() {
+        reconcile();
+    }
+
+    @Override
+    public void reconcile(DirtyRegion dirtyRegion, IRegion subRegion) {
+        reconcile();
+    }
+
+    @Override
+    public void reconcile(IRegion partition) {
+        reconcile();
+    }
+
+    private void reconcile() {
+        final IDocument document = this.document;
+        if (document == null || monitor.isCanceled()) {
+            return;
+        }
+        final RobotFile robotFile = RobotFile.get(document, monitor);
+        if (robotFile == null || monitor.isCanceled()) {
+            return;
+        }
+        Control widget = viewer.getTextWidget();
+        if (widget == null || widget.isDisposed()) {
+            return;
+        }
+        widget.getDisplay().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                Control widget = viewer.getTextWidget();
+                if (widget == null || widget.isDisposed()) {
+                    return;
+                }
+                updatePresentation(document, robotFile);
+            }
+        });
+    }
+
+    /**
+     * Re-colors the lines whose argument types changed, unless the viewer has since been given another document or the
+     * document has been modified since it was parsed. Must be called in the UI thread.
+     * 
+     * @param robotFile
+     *            the parse result of the document
+     */
+    void updatePresentation(IDocument document, RobotFile robotFile) {
+        if (viewer.getDocument() != document) {
+            return;
+        }
+        if (getModificationStamp(document) != robotFile.getModificationStamp()) {
+            // modified since parsing
+            return;
+        }
+        IRegion damage = damagerRepairer.presentationChanged(robotFile.getLines(), document.getLength());
+        if (damage == null) {
+            return;
+        }
+        if (viewer instanceof ITextViewerExtension2) {
+            ((ITextViewerExtension2) viewer).invalidateTextPresentation(damage.getOffset(), damage.getLength());
+        } else {
+            viewer.invalidateTextPresentation();
+        }
+    }
+
+    private static long getModificationStamp(IDocument document) {
+        if (document instanceof IDocumentExtension4) {
+            return ((IDocumentExtension4) document).getModificationStamp();
+        }
+        return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
+}
@@ -28,6 +28,8 @@ import org.eclipse.jface.text.contentassist.ContentAssistant;
 import org.eclipse.jface.text.contentassist.IContentAssistant;
 import org.eclipse.jface.text.hyperlink.IHyperlinkDetector;
 import org.eclipse.jface.text.presentation.IPresentationReconciler;
+import org.eclipse.jface.text.reconciler.IReconciler;
+import org.eclipse.jface.text.reconciler.MonoReconciler;
 import org.eclipse.jface.text.source.ISourceViewer;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.editors.text.TextSourceViewerConfiguration;
@@ -46,7 +48,11 @@ import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.Variable
 
 public class RobotSourceViewerConfiguration extends TextSourceViewerConfiguration {
 
+    /** Delay after the last keystroke before the document is parsed and re-colored in the background. */
+    private static final int RECONCILER_DELAY_MS = 150;
+
     private final ColorManager colorManager;
+    private RobotPresentationReconciler presentationReconciler;
 
     public RobotSourceViewerConfiguration(ColorManager colorManager, IPreferenceStore prefStore) {
         super(prefStore);
@@ -85,7 +91,27 @@ public class RobotSourceViewerConfiguration extends TextSourceViewerConfiguratio
      */
     @Override
     public IPresentationReconciler getPresentationReconciler(ISourceViewer sourceViewer) {
-        return new RobotPresentationReconciler(colorManager);
+        return getRobotPresentationReconciler();
+    }
+
+    /**
+     * This parses the document in the background and re-colors the changed lines, see
+     * {@link RobotReconcilingStrategy}. Replaces the default spelling reconciler.
+     */
+    @Override
+    public IReconciler getReconciler(ISourceViewer sourceViewer) {
+        RobotDamagerRepairer damagerRepairer = getRobotPresentationReconciler().getDamagerRepairer();
+        damagerRepairer.setDeferred(true);
+        MonoReconciler reconciler = new MonoReconciler(new RobotReconcilingStrategy(sourceViewer, damagerRepairer), false);
+        reconciler.setDelay(RECONCILER_DELAY_MS);
+        return reconciler;
+    }
+
+    private RobotPresentationReconciler getRobotPresentationReconciler() {
+        if (presentationReconciler == null) {
+            presentationReconciler = new RobotPresentationReconciler(colorManager);
+        }
+        return presentationReconciler;
     }
 
     @Override
@@ -29,10 +29,19 @@ public class TokenQueue {
     private int curTokenOff, curTokenLen;
 
     public void reset() {
-        nextTokenStart = 0;
+        reset(0);
+    }
+
+    /**
+     * @param startOffset
+     *            the document offset of the first token to be added
+     */
+    public void reset(int startOffset) {
+        nextTokenStart = startOffset;
         assert pendingTokens.isEmpty();
         pendingTokens.clear();
-        curTokenOff = curTokenLen = 0;
+        curTokenOff = startOffset;
+        curTokenLen = 0;
     }
 
     public IToken take() {
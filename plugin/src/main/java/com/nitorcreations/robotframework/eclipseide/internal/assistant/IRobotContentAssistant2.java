@@ -15,15 +15,14 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.assistant;
 
-import java.util.List;
-
 import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
-import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
 
 public interface IRobotContentAssistant2 {
 
-    ICompletionProposal[] generateProposals(IFile file, int documentOffset, String documentText, List<RobotLine> lines, int lineNo);
+    ICompletionProposal[] generateProposals(IFile file, int documentOffset, IDocument document, RobotFile robotFile, int lineNo);
 
 }
\ No newline at end of file
@@ -15,8 +15,6 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.assistant;
 
-import java.util.List;
-
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -28,7 +26,6 @@ import org.eclipse.jface.text.contentassist.IContextInformationValidator;
 
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
-import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
 
 public class RobotContentAssistant implements IContentAssistProcessor {
 
@@ -50,11 +47,10 @@ public class RobotContentAssistant implements IContentAssistProcessor {
             return null;
         }
 
-        List<RobotLine> lines = RobotFile.get(document).getLines();
+        RobotFile robotFile = RobotFile.get(document);
         IFile file = PluginContext.getResourceManager().resolveFileFor(document);
-        String documentText = document.get();
 
-        return robotContentAssistant2.generateProposals(file, documentOffset, documentText, lines, lineNo);
+        return robotContentAssistant2.generateProposals(file, documentOffset, document, robotFile, lineNo);
     }
 
     // ctrl-shift-space information popups
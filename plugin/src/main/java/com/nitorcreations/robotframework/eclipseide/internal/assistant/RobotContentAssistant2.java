@@ -19,6 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
@@ -51,11 +54,15 @@ public class RobotContentAssistant2 implements IRobotContentAssistant2 {
     }
 
     @Override
-    public ICompletionProposal[] generateProposals(IFile file, int documentOffset, String documentText, List<RobotLine> lines, int lineNo) {
-        RobotLine robotLine = lines.get(lineNo);
+    public ICompletionProposal[] generateProposals(IFile file, int documentOffset, IDocument document, RobotFile robotFile, int lineNo) {
+        RobotLine robotLine = robotFile.getLines().get(lineNo);
         ParsedString argument = robotLine.getArgumentAt(documentOffset);
         if (argument == null) {
-            argument = synthesizeArgument(documentText, documentOffset, lineNo);
+            try {
+                argument = synthesizeArgument(document, documentOffset, robotFile, lineNo);
+            } catch (BadLocationException e) {
+                return null;
+            }
         }
 
         return generateProposalsForArgument(file, argument, documentOffset, robotLine.lineCharPos);
@@ -73,21 +80,24 @@ public class RobotContentAssistant2 implements IRobotContentAssistant2 {
     /**
      * Since there is no argument for the current cursor position (otherwise this method wouldn't have been called),
      * figure out which argument it would be by fake-inserting a dummy character at that position. After parsing the
-     * file with the dummy character included, grab the argument that now resolves for the cursor position. Then undo
-     * the added dummy character from that argument and return the resulting argument, which is possibly empty, but
-     * which has a suitable {@link ArgumentType} assigned to it. This type thus indicates what type the argument would
-     * be should the user choose to use any of the content assist suggestions, and lets us decide what content assist
-     * suggestions to show in the first place.
+     * line with the dummy character included in the context of the surrounding lines, grab the argument that now
+     * resolves for the cursor position. Then undo the added dummy character from that argument and return the resulting
+     * argument, which is possibly empty, but which has a suitable {@link ArgumentType} assigned to it. This type thus
+     * indicates what type the argument would be should the user choose to use any of the content assist suggestions,
+     * and lets us decide what content assist suggestions to show in the first place. Only the current line is read
+     * from the document.
      * 
      * @return the synthesized argument
      */
-    private ParsedString synthesizeArgument(String documentText, int documentOffset, int lineNo) {
-        StringBuilder newText = new StringBuilder(documentText.length() + 3);
-        newText.append(documentText, 0, documentOffset);
-        newText.append('x'); // dummy character
-        newText.append(documentText, documentOffset, documentText.length());
-        List<RobotLine> lines = RobotFile.parse(newText.toString()).getLines();
-        RobotLine robotLine = lines.get(lineNo);
+    private ParsedString synthesizeArgument(IDocument document, int documentOffset, RobotFile robotFile, int lineNo) throws BadLocationException {
+        IRegion line = document.getLineInformation(lineNo);
+        String lineText = document.get(line.getOffset(), line.getLength());
+        int cursorPos = documentOffset - line.getOffset();
+        StringBuilder newLine = new StringBuilder(lineText.length() + 1);
+        newLine.append(lineText, 0, cursorPos);
+        newLine.append('x'); // dummy character
+        newLine.append(lineText, cursorPos, lineText.length());
+        RobotLine robotLine = robotFile.reparseLine("<content assist>", lineNo, newLine.toString());
         ParsedString synthesizedArgument = robotLine.getArgumentAt(documentOffset);
         assert synthesizedArgument != null;
         assert synthesizedArgument.getArgCharPos() == documentOffset;
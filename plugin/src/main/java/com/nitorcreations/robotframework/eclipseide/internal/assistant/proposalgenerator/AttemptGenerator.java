@@ -30,21 +30,45 @@ public class AttemptGenerator implements IAttemptGenerator {
     public void acceptAttempts(ParsedString argument, int documentOffset, Collection<RobotCompletionProposalSet> proposalSets, AttemptVisitor attemptVisitor) {
         IRegion replacementRegion = new Region(argument.getArgCharPos(), argument.getValue().length());
         List<String> attempts = generateAttempts(argument, documentOffset);
-        for (String attempt : attempts) {
-            RobotCompletionProposalSet proposalSet = attemptVisitor.visitAttempt(attempt, replacementRegion);
-            if (proposalsContainsOnly(proposalSet.getProposals(), argument)) {
-                // Found a single exact hit - probably means it was content-assisted earlier and the user now wants to
-                // change it to something else
-                continue;
+        if (attemptVisitor instanceof MultiAttemptVisitor) {
+            // the attempts based on input are evaluated at once, the first one with suitable proposals is still used.
+            // The empty attempt matches every definition, so it is only evaluated if the others have no suitable
+            // proposals, which keeps their substring lookups cheap.
+            List<String> inputAttempts = attempts.get(attempts.size() - 1).isEmpty() ? attempts.subList(0, attempts.size() - 1) : attempts;
+            if (!inputAttempts.isEmpty()) {
+                List<RobotCompletionProposalSet> attemptProposalSets = ((MultiAttemptVisitor) attemptVisitor).visitAttempts(inputAttempts, replacementRegion);
+                for (int i = 0; i < inputAttempts.size(); ++i) {
+                    if (accept(inputAttempts.get(i), attemptProposalSets.get(i), argument, proposalSets)) {
+                        return;
+                    }
+                }
             }
-            if (!proposalSet.getProposals().isEmpty()) {
-                proposalSet.setBasedOnInput(!attempt.isEmpty());
-                proposalSets.add(proposalSet);
+            attempts = attempts.subList(inputAttempts.size(), attempts.size());
+        }
+        for (String attempt : attempts) {
+            if (accept(attempt, attemptVisitor.visitAttempt(attempt, replacementRegion), argument, proposalSets)) {
                 return;
             }
         }
     }
 
+    /**
+     * @return true if the proposals of the given attempt were added, false if the next attempt should be tried
+     */
+    private static boolean accept(String attempt, RobotCompletionProposalSet proposalSet, ParsedString argument, Collection<RobotCompletionProposalSet> proposalSets) {
+        if (proposalsContainsOnly(proposalSet.getProposals(), argument)) {
+            // Found a single exact hit - probably means it was content-assisted earlier and the user now wants to
+            // change it to something else
+            return false;
+        }
+        if (!proposalSet.getProposals().isEmpty()) {
+            proposalSet.setBasedOnInput(!attempt.isEmpty());
+            proposalSets.add(proposalSet);
+            return true;
+        }
+        return false;
+    }
+
     private static boolean proposalsContainsOnly(List<RobotCompletionProposal> proposals, ParsedString argument) {
         return proposals.size() == 1 && proposals.get(0).getMatchArgument().equals(argument.getValue());
     }
@@ -15,12 +15,16 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.assistant.proposalgenerator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.IRegion;
 
 import com.nitorcreations.robotframework.eclipseide.internal.util.DefinitionFinder;
 
-public class KeywordCallAttemptVisitor implements AttemptVisitor {
+public class KeywordCallAttemptVisitor implements MultiAttemptVisitor {
     private final IFile file;
 
     public KeywordCallAttemptVisitor(IFile file) {
@@ -29,10 +33,20 @@ public class KeywordCallAttemptVisitor implements AttemptVisitor {
 
     @Override
     public RobotCompletionProposalSet visitAttempt(String attempt, IRegion replacementRegion) {
-        assert attempt.equals(attempt.toLowerCase());
-        RobotCompletionProposalSet ourProposalSet = new RobotCompletionProposalSet();
-        CompletionMatchVisitor visitor = new KeywordCompletionMatchVisitor(file, attempt, ourProposalSet.getProposals(), replacementRegion);
-        DefinitionFinder.acceptMatches(file, visitor);
-        return ourProposalSet;
+        return visitAttempts(Collections.singletonList(attempt), replacementRegion).get(0);
+    }
+
+    @Override
+    public List<RobotCompletionProposalSet> visitAttempts(List<String> attempts, IRegion replacementRegion) {
+        List<RobotCompletionProposalSet> ourProposalSets = new ArrayList<RobotCompletionProposalSet>(attempts.size());
+        List<CompletionMatchVisitor> visitors = new ArrayList<CompletionMatchVisitor>(attempts.size());
+        for (String attempt : attempts) {
+            assert attempt.equals(attempt.toLowerCase());
+            RobotCompletionProposalSet ourProposalSet = new RobotCompletionProposalSet();
+            ourProposalSets.add(ourProposalSet);
+            visitors.add(new KeywordCompletionMatchVisitor(file, attempt, ourProposalSet.getProposals(), replacementRegion));
+        }
+        DefinitionFinder.acceptMatches(file, new MultiAttemptMatchVisitor(visitors));
+        return ourProposalSets;
     }
 }
\ No newline at end of file
@@ -15,6 +15,9 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.assistant.proposalgenerator;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -23,10 +26,11 @@ import org.eclipse.jface.text.IRegion;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
 import com.nitorcreations.robotframework.eclipseide.internal.util.FileWithType;
+import com.nitorcreations.robotframework.eclipseide.internal.util.SubstringMatchFilter;
 import com.nitorcreations.robotframework.eclipseide.internal.util.VisitorInterest;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 
-public class KeywordCompletionMatchVisitor extends CompletionMatchVisitor {
+public class KeywordCompletionMatchVisitor extends CompletionMatchVisitor implements SubstringMatchFilter {
 
     public KeywordCompletionMatchVisitor(IFile file, String argument, List<RobotCompletionProposal> proposals, IRegion replacementRegion) {
         super(file, argument, proposals, replacementRegion);
@@ -34,7 +38,7 @@ public class KeywordCompletionMatchVisitor extends CompletionMatchVisitor {
 
     @Override
     public VisitorInterest visitMatch(ParsedString match, FileWithType matchLocation) {
-        if (userInput == null) {
+        if (userInput == null || userInput.isEmpty()) {
             addProposal(match.getValue(), matchLocation);
         } else {
             String userInputStringLower = userInput.toLowerCase();
@@ -77,6 +81,21 @@ public class KeywordCompletionMatchVisitor extends CompletionMatchVisitor {
         }
     }
 
+    /**
+     * The user input, and the part after the dot if it starts with a prefix of the name of the given file.
+     */
+    @Override
+    public Collection<String> getWantedSubstrings(FileWithType location) {
+        if (userInput == null || userInput.isEmpty()) {
+            return null;
+        }
+        String userInputStringLower = userInput.toLowerCase();
+        if (!prefixesMatch(userInputStringLower, location)) {
+            return Collections.singletonList(userInputStringLower);
+        }
+        return Arrays.asList(userInputStringLower, userInputStringLower.substring(userInputStringLower.indexOf('.') + 1));
+    }
+
     private boolean matchesWithoutPrefix(String userInputStringLower, String matchStringLower, FileWithType matchLocation) {
         if (!prefixesMatch(userInputStringLower, matchLocation)) {
             return false;
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.assistant.proposalgenerator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.internal.util.DefinitionMatchVisitor;
+import com.nitorcreations.robotframework.eclipseide.internal.util.FileWithType;
+import com.nitorcreations.robotframework.eclipseide.internal.util.SubstringMatchFilter;
+import com.nitorcreations.robotframework.eclipseide.internal.util.VisitorInterest;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
+/**
+ * Passes each match to the completion match visitors of several attempts, so that all attempts are evaluated in a
+ * single traversal. The visitors must only differ by their user input, as the imports to descend into are decided by
+ * the first one. If all the visitors are {@link SubstringMatchFilter}s, only the definitions wanted by some of them are
+ * looked up.
+ */
+class MultiAttemptMatchVisitor implements DefinitionMatchVisitor, SubstringMatchFilter {
+    private final List<? extends CompletionMatchVisitor> visitors;
+    private final boolean[] stopped;
+    private int remaining;
+
+    MultiAttemptMatchVisitor(List<? extends CompletionMatchVisitor> visitors) {
+        this.visitors = visitors;
+        stopped = new boolean[visitors.size()];
+        remaining = visitors.size();
+    }
+
+    @Override
+    public VisitorInterest visitMatch(ParsedString match, FileWithType matchLocation) {
+        for (int i = 0; i < stopped.length; ++i) {
+            if (!stopped[i] && visitors.get(i).visitMatch(match, matchLocation) == VisitorInterest.STOP) {
+                stopped[i] = true;
+                --remaining;
+            }
+        }
+        return remaining == 0 ? VisitorInterest.STOP : VisitorInterest.CONTINUE;
+    }
+
+    @Override
+    public Collection<String> getWantedSubstrings(FileWithType location) {
+        List<String> wantedSubstrings = new ArrayList<String>();
+        for (int i = 0; i < stopped.length; ++i) {
+            if (stopped[i]) {
+                continue;
+            }
+            if (!(visitors.get(i) instanceof SubstringMatchFilter)) {
+                return null;
+            }
+            Collection<String> substrings = ((SubstringMatchFilter) visitors.get(i)).getWantedSubstrings(location);
+            if (substrings == null) {
+                return null;
+            }
+            wantedSubstrings.addAll(substrings);
+        }
+        return wantedSubstrings;
+    }
+
+    @Override
+    public LineType getWantedLineType() {
+        return visitors.get(0).getWantedLineType();
+    }
+
+    @Override
+    public boolean visitImport(IFile currentFile, RobotLine line) {
+        return visitors.get(0).visitImport(currentFile, line);
+    }
+}
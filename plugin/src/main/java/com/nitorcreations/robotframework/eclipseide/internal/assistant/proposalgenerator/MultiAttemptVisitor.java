@@ -0,0 +1,31 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.assistant.proposalgenerator;
+
+import java.util.List;
+
+import org.eclipse.jface.text.IRegion;
+
+/**
+ * An {@link AttemptVisitor} that evaluates several attempts at once, e.g. in a single traversal of the imported files.
+ */
+public interface MultiAttemptVisitor extends AttemptVisitor {
+    /**
+     * @return the proposal sets of the given attempts, in the same order, each equal to the result of
+     *         {@link #visitAttempt(String, IRegion)} for the attempt
+     */
+    List<RobotCompletionProposalSet> visitAttempts(List<String> attempts, IRegion replacementRegion);
+}
@@ -15,12 +15,16 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.assistant.proposalgenerator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.IRegion;
 
 import com.nitorcreations.robotframework.eclipseide.internal.util.DefinitionFinder;
 
-public class VariableAttemptVisitor implements AttemptVisitor {
+public class VariableAttemptVisitor implements MultiAttemptVisitor {
     private final IFile file;
     private final int maxVariableCharPos;
     private final int maxSettingCharPos;
@@ -33,15 +37,27 @@ public class VariableAttemptVisitor implements AttemptVisitor {
 
     @Override
     public RobotCompletionProposalSet visitAttempt(String attempt, IRegion replacementRegion) {
-        assert attempt.equals(attempt.toLowerCase());
-        RobotCompletionProposalSet ourProposalSet = new RobotCompletionProposalSet();
-        CompletionMatchVisitor visitor = new VariableCompletionMatchVisitor(file, attempt, ourProposalSet.getProposals(), replacementRegion, maxVariableCharPos, maxSettingCharPos);
-        DefinitionFinder.acceptMatches(file, visitor);
+        return visitAttempts(Collections.singletonList(attempt), replacementRegion).get(0);
+    }
+
+    @Override
+    public List<RobotCompletionProposalSet> visitAttempts(List<String> attempts, IRegion replacementRegion) {
+        List<RobotCompletionProposalSet> ourProposalSets = new ArrayList<RobotCompletionProposalSet>(attempts.size());
+        List<CompletionMatchVisitor> visitors = new ArrayList<CompletionMatchVisitor>(attempts.size());
+        for (String attempt : attempts) {
+            assert attempt.equals(attempt.toLowerCase());
+            RobotCompletionProposalSet ourProposalSet = new RobotCompletionProposalSet();
+            ourProposalSets.add(ourProposalSet);
+            visitors.add(new VariableCompletionMatchVisitor(file, attempt, ourProposalSet.getProposals(), replacementRegion, maxVariableCharPos, maxSettingCharPos));
+        }
+        DefinitionFinder.acceptMatches(file, new MultiAttemptMatchVisitor(visitors));
         if (replacementRegion.getLength() > 0) {
             // the cursor is positioned for replacing a variable, so mark the variable proposals high priority
-            ourProposalSet.setPriorityProposal();
+            for (RobotCompletionProposalSet ourProposalSet : ourProposalSets) {
+                ourProposalSet.setPriorityProposal();
+            }
         }
-        return ourProposalSet;
+        return ourProposalSets;
 
         // TODO
         // if (replacementRegion.getLength() > 0) {
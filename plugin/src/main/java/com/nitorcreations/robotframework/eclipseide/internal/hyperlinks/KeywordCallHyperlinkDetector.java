@@ -26,10 +26,12 @@ import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
 import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordInlineArgumentMatcher;
 import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordMatchResult;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
 import com.nitorcreations.robotframework.eclipseide.internal.rules.ArgumentUtils;
 import com.nitorcreations.robotframework.eclipseide.internal.util.BaseDefinitionMatchVisitor;
 import com.nitorcreations.robotframework.eclipseide.internal.util.DefinitionFinder;
 import com.nitorcreations.robotframework.eclipseide.internal.util.FileWithType;
+import com.nitorcreations.robotframework.eclipseide.internal.util.KeywordPatternMatchVisitor;
 import com.nitorcreations.robotframework.eclipseide.internal.util.VisitorInterest;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
@@ -44,15 +46,17 @@ import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.Argum
  */
 public class KeywordCallHyperlinkDetector extends HyperlinkDetector {
 
-    private static final class KeywordHyperlinkMatchVisitor extends BaseDefinitionMatchVisitor {
+    private static final class KeywordHyperlinkMatchVisitor extends BaseDefinitionMatchVisitor implements KeywordPatternMatchVisitor {
         private final IRegion linkRegion;
         private final String linkString;
+        private final KeywordPattern linkPattern;
         private final List<IHyperlink> links;
 
         KeywordHyperlinkMatchVisitor(String linkString, IRegion linkRegion, IFile file, List<IHyperlink> links) {
             super(file);
             this.linkRegion = linkRegion;
             this.linkString = linkString;
+            this.linkPattern = KeywordPattern.compile(linkString);
             this.links = links;
         }
 
@@ -61,8 +65,12 @@ public class KeywordCallHyperlinkDetector extends HyperlinkDetector {
             if (location.getFile() == null) {
                 return VisitorInterest.CONTINUE;
             }
-            String matchString = getMatchStringInFile(location, linkString);
-            KeywordMatchResult matchResult = KeywordInlineArgumentMatcher.match(match.getValue().toLowerCase(), matchString);
+            return visitMatch(match, KeywordPattern.compile(match.getValue()), location);
+        }
+
+        @Override
+        public VisitorInterest visitMatch(ParsedString match, KeywordPattern matchPattern, FileWithType location) {
+            KeywordMatchResult matchResult = KeywordInlineArgumentMatcher.match(matchPattern, getMatchPatternInFile(location));
             if (matchResult != KeywordMatchResult.DIFFERENT) {
                 IRegion targetRegion = new Region(match.getArgEndCharPos(), 0);
                 links.add(new Hyperlink(linkRegion, getDisplayString(match.getValue(), location), targetRegion, location));
@@ -71,12 +79,12 @@ public class KeywordCallHyperlinkDetector extends HyperlinkDetector {
             return VisitorInterest.CONTINUE;
         }
 
-        private String getMatchStringInFile(FileWithType location, String linkString) {
+        private KeywordPattern getMatchPatternInFile(FileWithType location) {
             String filePrefix = location.getName() + ".";
             if (linkString.startsWith(filePrefix)) {
-                return linkString.substring(filePrefix.length()).toLowerCase();
+                return KeywordPattern.compile(linkString.substring(filePrefix.length()));
             }
-            return linkString.toLowerCase();
+            return linkPattern;
         }
 
         @Override
@@ -97,7 +105,7 @@ public class KeywordCallHyperlinkDetector extends HyperlinkDetector {
         }
         String linkString = argument.getUnescapedValue();
         IRegion linkRegion = new Region(argument.getArgCharPos(), argument.getValue().length());
-        DefinitionFinder.acceptMatches(file, new KeywordHyperlinkMatchVisitor(linkString, linkRegion, file, links));
+        DefinitionFinder.acceptMatches(file, linkString, new KeywordHyperlinkMatchVisitor(linkString, linkRegion, file, links));
         if (links.isEmpty()) {
             // try without possible BDD prefix
             String alternateValue = argument.getAlternateValue();
@@ -106,7 +114,7 @@ public class KeywordCallHyperlinkDetector extends HyperlinkDetector {
                 linkString = ArgumentUtils.unescapeArgument(alternateValue, 0, alternateValue.length());
                 int lengthDiff = origLength - linkString.length();
                 linkRegion = new Region(argument.getArgCharPos() + lengthDiff, argument.getValue().length() - lengthDiff);
-                DefinitionFinder.acceptMatches(file, new KeywordHyperlinkMatchVisitor(linkString, linkRegion, file, links));
+                DefinitionFinder.acceptMatches(file, linkString, new KeywordHyperlinkMatchVisitor(linkString, linkRegion, file, links));
             }
         }
     }
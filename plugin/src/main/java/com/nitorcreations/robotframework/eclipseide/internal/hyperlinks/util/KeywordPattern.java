@@ -0,0 +1,119 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A keyword name compiled for {@link KeywordInlineArgumentMatcher}: its embedded <tt>${...}</tt> arguments are
+ * wildcards matching any text, and the literal parts between them are kept in lower case.
+ */
+public final class KeywordPattern {
+
+    /** the literal parts before, between and after the wildcards */
+    private final String[] parts;
+
+    private KeywordPattern(String[] parts) {
+        this.parts = parts;
+    }
+
+    public static KeywordPattern compile(String name) {
+        List<String> parts = new ArrayList<String>(1);
+        StringBuilder part = new StringBuilder(name.length());
+        int i = 0;
+        while (i < name.length()) {
+            int end = getEmbeddedArgumentEnd(name, i);
+            if (end == -1) {
+                part.append(Character.toLowerCase(name.charAt(i++)));
+                continue;
+            }
+            parts.add(part.toString());
+            part.setLength(0);
+            i = end;
+        }
+        parts.add(part.toString());
+        return new KeywordPattern(parts.toArray(new String[parts.size()]));
+    }
+
+    /**
+     * @return the index after the embedded argument starting at the given index, or -1 if there is none
+     */
+    private static int getEmbeddedArgumentEnd(String name, int start) {
+        if (!name.startsWith("${", start) || start + 2 >= name.length() || name.charAt(start + 2) == '}') {
+            return -1;
+        }
+        int close = name.indexOf('}', start + 3);
+        return close == -1 ? -1 : close + 1;
+    }
+
+    public boolean hasWildcards() {
+        return parts.length > 1;
+    }
+
+    /**
+     * @return the lower case name, if this pattern has no wildcards
+     */
+    public String getLiteral() {
+        assert !hasWildcards();
+        return parts[0];
+    }
+
+    /**
+     * Two patterns match if some keyword name matches both. This is decided in time linear to the length of the
+     * patterns.
+     */
+    public KeywordMatchResult match(KeywordPattern other) {
+        if (!hasWildcards() && !other.hasWildcards()) {
+            return parts[0].equals(other.parts[0]) ? KeywordMatchResult.EXACT : KeywordMatchResult.DIFFERENT;
+        }
+        boolean matches;
+        if (!hasWildcards()) {
+            matches = other.matchesLiteral(parts[0]);
+        } else if (!other.hasWildcards()) {
+            matches = matchesLiteral(other.parts[0]);
+        } else {
+            // the wildcards of both can absorb each other's middle parts, so only the ends need to agree
+            String first = parts[0];
+            String otherFirst = other.parts[0];
+            String last = parts[parts.length - 1];
+            String otherLast = other.parts[other.parts.length - 1];
+            matches = (first.startsWith(otherFirst) || otherFirst.startsWith(first)) && (last.endsWith(otherLast) || otherLast.endsWith(last));
+        }
+        return matches ? KeywordMatchResult.WILDCARD : KeywordMatchResult.DIFFERENT;
+    }
+
+    /**
+     * Greedily places each middle part as early as possible, which finds a match whenever there is one.
+     */
+    private boolean matchesLiteral(String literal) {
+        String first = parts[0];
+        String last = parts[parts.length - 1];
+        if (!literal.startsWith(first) || !literal.endsWith(last)) {
+            return false;
+        }
+        int pos = first.length();
+        int end = literal.length() - last.length();
+        for (int i = 1; i < parts.length - 1; ++i) {
+            int found = literal.indexOf(parts[i], pos);
+            if (found == -1) {
+                return false;
+            }
+            pos = found + parts[i].length();
+        }
+        return pos <= end;
+    }
+}
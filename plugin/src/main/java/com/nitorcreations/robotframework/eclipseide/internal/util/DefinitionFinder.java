@@ -15,6 +15,7 @@
  */
 package com.nitorcreations.robotframework.eclipseide.internal.util;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
@@ -22,10 +23,12 @@ import org.eclipse.core.resources.IFile;
 
 import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 
 public class DefinitionFinder {
 
-    private static class LineMatchVisitorAdapter implements LineMatchVisitor {
+    private static class LineMatchVisitorAdapter implements LineMatchVisitor, SubstringMatchFilter, KeywordPatternMatchVisitor {
 
         private final DefinitionMatchVisitor delegate;
 
@@ -38,6 +41,14 @@ public class DefinitionFinder {
             return delegate.visitMatch(line.arguments.get(0), lineLocation);
         }
 
+        @Override
+        public VisitorInterest visitMatch(ParsedString match, KeywordPattern matchPattern, FileWithType matchLocation) {
+            if (delegate instanceof KeywordPatternMatchVisitor) {
+                return ((KeywordPatternMatchVisitor) delegate).visitMatch(match, matchPattern, matchLocation);
+            }
+            return delegate.visitMatch(match, matchLocation);
+        }
+
         @Override
         public Set<LineType> getWantedLineTypes() {
             return Collections.singleton(delegate.getWantedLineType());
@@ -58,6 +69,14 @@ public class DefinitionFinder {
             return delegate.visitImport(currentFile, line);
         }
 
+        @Override
+        public Collection<String> getWantedSubstrings(FileWithType location) {
+            if (delegate instanceof SubstringMatchFilter) {
+                return ((SubstringMatchFilter) delegate).getWantedSubstrings(location);
+            }
+            return null;
+        }
+
     }
 
     /**
@@ -73,4 +92,19 @@ public class DefinitionFinder {
         LineFinder.acceptMatches(file, new LineMatchVisitorAdapter(visitor));
     }
 
+    /**
+     * Like {@link #acceptMatches(IFile, DefinitionMatchVisitor)}, but only passes the definitions of robot files that
+     * may match the given name.
+     * 
+     * @param file
+     *            the starting file
+     * @param name
+     *            the name of the wanted definition, possibly prefixed with the name of the defining file
+     * @param visitor
+     *            the visitor of the matches found
+     */
+    public static void acceptMatches(IFile file, String name, DefinitionMatchVisitor visitor) {
+        LineFinder.acceptMatches(file, name, new LineMatchVisitorAdapter(visitor));
+    }
+
 }
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * The files visible from a robot file through its imports, in the order {@link LineFinder} visits them. Closures are
+ * cached per file, and dropped when an import line of a robot file in the closure changes, or when a file is added or
+ * removed.
+ */
+public class ImportClosure {
+
+    private static final Map<IFile, ImportClosure> CLOSURES = new HashMap<IFile, ImportClosure>();
+
+    /** incremented on every invalidation, so that a closure built concurrently with one is not cached */
+    private static long generation;
+
+    final List<FileWithType> files = new ArrayList<FileWithType>();
+    final List<Integer> priorityLevels = new ArrayList<Integer>();
+    private final Set<IFile> robotFiles = new HashSet<IFile>();
+    private final Set<IFile> variableFiles = new HashSet<IFile>();
+    private boolean hasMissingImports;
+
+    private ImportClosure(IFile file) {
+        PriorityDeque<FileWithType> unprocessedFiles = LineFinder.createUnprocessedFiles(file);
+        Set<FileWithType> allFiles = new HashSet<FileWithType>();
+        allFiles.addAll(unprocessedFiles);
+        robotFiles.add(file);
+        while (!unprocessedFiles.isEmpty()) {
+            priorityLevels.add(unprocessedFiles.peekLowestPriority());
+            FileWithType currentFileWithType = unprocessedFiles.removeFirst();
+            files.add(currentFileWithType);
+            if (currentFileWithType.getType() == FileType.VARIABLE) {
+                variableFiles.add(currentFileWithType.getFile());
+            }
+            if (currentFileWithType.getType() != FileType.RESOURCE) {
+                continue;
+            }
+            robotFiles.add(currentFileWithType.getFile());
+            SymbolIndex.FileSymbols symbols = SymbolIndex.get(currentFileWithType.getFile());
+            if (symbols == null) {
+                continue;
+            }
+            for (int i = 0; i < symbols.imports.size(); ++i) {
+                FileWithType importedFile = LineFinder.getImportedFile(symbols, i, currentFileWithType);
+                if (importedFile == null) {
+                    hasMissingImports = true;
+                } else if (allFiles.add(importedFile)) {
+                    unprocessedFiles.add(importedFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the import closure of the current versions of the given file and the files it imports
+     */
+    static ImportClosure get(IFile file) {
+        ImportClosure closure;
+        long closureGeneration;
+        synchronized (CLOSURES) {
+            closure = CLOSURES.get(file);
+            closureGeneration = generation;
+        }
+        if (closure != null) {
+            // reparses any changed robot files, invalidating the closure if their imports changed
+            for (IFile robotFile : closure.robotFiles) {
+                SymbolIndex.get(robotFile);
+            }
+            synchronized (CLOSURES) {
+                if (CLOSURES.get(file) == closure) {
+                    return closure;
+                }
+                closureGeneration = generation;
+            }
+        }
+        closure = new ImportClosure(file);
+        synchronized (CLOSURES) {
+            if (generation == closureGeneration) {
+                CLOSURES.put(file, closure);
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Since the closure is built with all imports followed, it can be used only for visitors that would follow them
+     * all.
+     */
+    boolean acceptsAllImports(LineMatchVisitor visitor) {
+        for (IFile robotFile : robotFiles) {
+            SymbolIndex.FileSymbols symbols = SymbolIndex.get(robotFile);
+            if (symbols == null) {
+                continue;
+            }
+            for (int i = 0; i < symbols.imports.size(); ++i) {
+                if (!visitor.visitImport(robotFile, symbols.imports.get(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the closures containing the given file, which has changed its imports or has been added or removed.
+     */
+    public static void invalidate(IFile file) {
+        synchronized (CLOSURES) {
+            ++generation;
+            removeContaining(file);
+        }
+    }
+
+    private static void removeContaining(IFile file) {
+        for (Iterator<ImportClosure> it = CLOSURES.values().iterator(); it.hasNext();) {
+            if (it.next().robotFiles.contains(file)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the closures built while the given file could not be parsed. Closures being built are not affected, as
+     * they see the file as indexed now.
+     */
+    static void indexed(IFile file) {
+        synchronized (CLOSURES) {
+            removeContaining(file);
+        }
+    }
+
+    /**
+     * Drops the closures that may be affected by the given file appearing or disappearing.
+     */
+    public static void fileAddedOrRemoved(IFile file) {
+        synchronized (CLOSURES) {
+            ++generation;
+            for (Iterator<ImportClosure> it = CLOSURES.values().iterator(); it.hasNext();) {
+                ImportClosure closure = it.next();
+                if (closure.hasMissingImports || closure.robotFiles.contains(file) || closure.variableFiles.contains(file)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordMatchResult;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
+
+/**
+ * Finds the keywords of one file that may be called by a given name. Keywords without embedded arguments are looked up
+ * by normalized name, and the ones with embedded arguments are matched with their {@link KeywordPattern}. The patterns
+ * of all keywords are compiled once when the lookup is built, see {@link #getPattern(int)}.
+ * 
+ * @param <T>
+ *            the type of the keywords
+ */
+public final class KeywordLookup<T> {
+
+    private final List<T> keywords;
+    /** the indexes of the keywords without embedded arguments, by normalized name */
+    private final Map<String, int[]> indexesByName = new HashMap<String, int[]>();
+    private final KeywordPattern[] patterns;
+    private final int[] embeddedArgumentIndexes;
+
+    /**
+     * @param keywords
+     *            the keywords, in file order
+     * @param names
+     *            the names of the keywords, in the same order
+     */
+    public KeywordLookup(List<T> keywords, List<String> names) {
+        this.keywords = keywords;
+        patterns = new KeywordPattern[names.size()];
+        List<Integer> embeddedArgumentIndexList = new ArrayList<Integer>();
+        for (int i = 0; i < names.size(); ++i) {
+            String name = names.get(i);
+            patterns[i] = KeywordPattern.compile(name);
+            if (SymbolIndex.hasEmbeddedArguments(name)) {
+                embeddedArgumentIndexList.add(i);
+                continue;
+            }
+            String key = SymbolIndex.normalize(name);
+            int[] indexes = indexesByName.get(key);
+            if (indexes == null) {
+                indexes = new int[] { i };
+            } else {
+                indexes = Arrays.copyOf(indexes, indexes.length + 1);
+                indexes[indexes.length - 1] = i;
+            }
+            indexesByName.put(key, indexes);
+        }
+        embeddedArgumentIndexes = new int[embeddedArgumentIndexList.size()];
+        for (int i = 0; i < embeddedArgumentIndexes.length; ++i) {
+            embeddedArgumentIndexes[i] = embeddedArgumentIndexList.get(i);
+        }
+    }
+
+    /**
+     * @param index
+     *            the index of the keyword in the list given to the constructor
+     * @return the compiled name of the keyword
+     */
+    public KeywordPattern getPattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * @param name
+     *            the called name, possibly prefixed with the name of this file
+     * @return the keywords that may match the given name, in file order; all keywords if the name itself has embedded
+     *         arguments
+     */
+    public List<T> get(String name, String fileName) {
+        if (SymbolIndex.hasEmbeddedArguments(name)) {
+            return keywords;
+        }
+        List<Integer> found = new ArrayList<Integer>();
+        addMatches(found, name);
+        String filePrefix = fileName.toLowerCase() + '.';
+        if (name.toLowerCase().startsWith(filePrefix)) {
+            addMatches(found, name.substring(filePrefix.length()));
+        }
+        Collections.sort(found);
+        List<T> matches = new ArrayList<T>(found.size());
+        for (int i = 0; i < found.size(); ++i) {
+            if (i == 0 || !found.get(i).equals(found.get(i - 1))) {
+                matches.add(keywords.get(found.get(i)));
+            }
+        }
+        return matches;
+    }
+
+    private void addMatches(List<Integer> found, String name) {
+        int[] byName = indexesByName.get(SymbolIndex.normalize(name));
+        if (byName != null) {
+            for (int index : byName) {
+                found.add(index);
+            }
+        }
+        if (embeddedArgumentIndexes.length > 0) {
+            KeywordPattern namePattern = KeywordPattern.compile(name);
+            for (int index : embeddedArgumentIndexes) {
+                if (patterns[index].match(namePattern) != KeywordMatchResult.DIFFERENT) {
+                    found.add(index);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
+/**
+ * Optionally implemented by a {@link DefinitionMatchVisitor} or {@link LineMatchVisitor} that matches keyword
+ * definitions by their {@link KeywordPattern}, so that it is passed the patterns already compiled by the
+ * {@link KeywordLookup} of each robot file instead of compiling them again for each match.
+ */
+public interface KeywordPatternMatchVisitor {
+    /**
+     * Called instead of the <code>visitMatch</code> method of the visitor for the keyword definitions of robot files.
+     * 
+     * @param match
+     *            the name of the keyword
+     * @param matchPattern
+     *            the compiled name of the keyword
+     * @param matchLocation
+     *            where the keyword is defined
+     */
+    VisitorInterest visitMatch(ParsedString match, KeywordPattern matchPattern, FileWithType matchLocation);
+}
@@ -26,13 +26,13 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
 
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.IndexFile;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
 import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
 
@@ -40,7 +40,10 @@ public class LineFinder {
 
     /**
      * This iterates the given resource file and recursively included resource files to locate definitions of keywords
-     * and global variables. It passes the matches to the given {@link LineMatchVisitor} instance.
+     * and global variables. It passes the matches to the given {@link LineMatchVisitor} instance. A visitor that is a
+     * {@link SubstringMatchFilter} is only passed the definitions containing its wanted substrings, as looked up from
+     * the {@link SubstringIndex} of each file. A visitor that is a {@link KeywordPatternMatchVisitor} is passed the
+     * keyword definitions of robot files with their compiled names.
      * 
      * @param file
      *            the starting file
@@ -48,11 +51,37 @@ public class LineFinder {
      *            the visitor of the matches found
      */
     public static void acceptMatches(IFile file, LineMatchVisitor visitor) {
-        /*
-         * Priority level 0: built-in variables. Priority level 1: definitions from the local file. Priority level 2:
-         * definitions from included resource and variable files, recursively. Priority level 3: explicitly loaded
-         * libraries. Priority level 4: built-in library.
-         */
+        acceptMatches(file, null, visitor);
+    }
+
+    /**
+     * Like {@link #acceptMatches(IFile, LineMatchVisitor)}, but only passes the definitions of robot files that may
+     * match the given keyword or variable name, as looked up from the {@link SymbolIndex}. Library keywords are looked
+     * up likewise from their {@link KeywordLookup}, while library and variable file variables are all passed.
+     * 
+     * @param file
+     *            the starting file
+     * @param name
+     *            the name of the wanted definition, possibly prefixed with the name of the defining file; null for all
+     *            definitions
+     * @param visitor
+     *            the visitor of the matches found
+     */
+    public static void acceptMatches(IFile file, String name, LineMatchVisitor visitor) {
+        ImportClosure closure = ImportClosure.get(file);
+        if (closure.acceptsAllImports(visitor)) {
+            acceptClosure(closure, name, visitor);
+        } else {
+            acceptImportedFiles(file, name, visitor);
+        }
+    }
+
+    /**
+     * Priority level 0: built-in variables. Priority level 1: definitions from the local file. Priority level 2:
+     * definitions from included resource and variable files, recursively. Priority level 3: explicitly loaded
+     * libraries. Priority level 4: built-in library.
+     */
+    static PriorityDeque<FileWithType> createUnprocessedFiles(IFile file) {
         PriorityDeque<FileWithType> unprocessedFiles = new ArrayPriorityDeque<FileWithType>(5, new Prioritizer<FileWithType>() {
             @Override
             public int prioritize(FileWithType fileWithType) {
@@ -62,71 +91,114 @@ public class LineFinder {
         unprocessedFiles.add(0, new FileWithType(FileType.BUILTIN_VARIABLE, "BuiltIn", file.getProject()));
         unprocessedFiles.add(1, new FileWithType(FileType.RESOURCE, file));
         unprocessedFiles.add(4, new FileWithType(FileType.LIBRARY, "BuiltIn", file.getProject()));
+        return unprocessedFiles;
+    }
 
+    private static void acceptClosure(ImportClosure closure, String name, LineMatchVisitor visitor) {
+        int currentPriorityLevel = 0;
+        for (int i = 0; i < closure.files.size(); ++i) {
+            VisitorInterest interest = acceptFile(closure.files.get(i), name, visitor, null, null);
+            int nextPriorityLevel = i + 1 < closure.files.size() ? closure.priorityLevels.get(i + 1) : -1;
+            if (!shouldContinue(interest, currentPriorityLevel, nextPriorityLevel)) {
+                return;
+            }
+            currentPriorityLevel = nextPriorityLevel;
+        }
+    }
+
+    private static void acceptImportedFiles(IFile file, String name, LineMatchVisitor visitor) {
+        PriorityDeque<FileWithType> unprocessedFiles = createUnprocessedFiles(file);
         Set<FileWithType> allFiles = new HashSet<FileWithType>();
         allFiles.addAll(unprocessedFiles);
         int currentPriorityLevel = 0;
         while (!unprocessedFiles.isEmpty()) {
             FileWithType currentFileWithType = unprocessedFiles.removeFirst();
-
-            VisitorInterest interest;
-            switch (currentFileWithType.getType()) {
-                case RESOURCE:
-                    interest = acceptResourceFile(currentFileWithType, visitor, unprocessedFiles, allFiles);
-                    break;
-                case LIBRARY:
-                case VARIABLE:
-                case BUILTIN_VARIABLE:
-                    interest = acceptVariableOrLibraryFile(currentFileWithType, visitor);
-                    break;
-                default:
-                    throw new RuntimeException("Unhandled " + currentFileWithType);
-            }
+            VisitorInterest interest = acceptFile(currentFileWithType, name, visitor, unprocessedFiles, allFiles);
             int nextPriorityLevel = unprocessedFiles.peekLowestPriority();
-            switch (interest) {
-                case STOP:
-                case CONTINUE_TO_END_OF_CURRENT_FILE:
-                    return;
-                case CONTINUE_TO_END_OF_CURRENT_PRIORITY_LEVEL:
-                    if (nextPriorityLevel != currentPriorityLevel) {
-                        return;
-                    }
-                    break;
+            if (!shouldContinue(interest, currentPriorityLevel, nextPriorityLevel)) {
+                return;
             }
             currentPriorityLevel = nextPriorityLevel;
         }
     }
 
-    private static VisitorInterest acceptResourceFile(FileWithType currentFileWithType, LineMatchVisitor visitor, Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles) {
+    private static boolean shouldContinue(VisitorInterest interest, int currentPriorityLevel, int nextPriorityLevel) {
+        switch (interest) {
+            case STOP:
+            case CONTINUE_TO_END_OF_CURRENT_FILE:
+                return false;
+            case CONTINUE_TO_END_OF_CURRENT_PRIORITY_LEVEL:
+                return nextPriorityLevel == currentPriorityLevel;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @param unprocessedFiles
+     *            where to add the files imported by the given file, or null if they are already known
+     */
+    private static VisitorInterest acceptFile(FileWithType currentFileWithType, String name, LineMatchVisitor visitor, Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles) {
+        switch (currentFileWithType.getType()) {
+            case RESOURCE:
+                return acceptResourceFile(currentFileWithType, name, visitor, unprocessedFiles, allFiles);
+            case LIBRARY:
+            case VARIABLE:
+            case BUILTIN_VARIABLE:
+                return acceptVariableOrLibraryFile(currentFileWithType, name, visitor);
+            default:
+                throw new RuntimeException("Unhandled " + currentFileWithType);
+        }
+    }
+
+    private static VisitorInterest acceptResourceFile(FileWithType currentFileWithType, String name, LineMatchVisitor visitor, Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles) {
         IFile currentFile = currentFileWithType.getFile();
-        RobotFile currentRobotFile = RobotFile.get(currentFile, true);
-        List<RobotLine> lines;
-        if (currentRobotFile == null) {
+        SymbolIndex.FileSymbols symbols = SymbolIndex.get(currentFile);
+        if (symbols == null) {
             return CONTINUE;
         }
-        lines = currentRobotFile.getLines();
         VisitorInterest interest = CONTINUE;
-        for (RobotLine line : lines) {
-            if (visitor.getWantedLineTypes().contains(line.type)) {
-                interest = visitor.visitMatch(line, currentFileWithType);
+        Set<LineType> wantedLineTypes = visitor.getWantedLineTypes();
+        LineType indexedLineType = wantedLineTypes.size() == 1 ? wantedLineTypes.iterator().next() : null;
+        if (SymbolIndex.INDEXED_LINE_TYPES.contains(indexedLineType)) {
+            List<SymbolIndex.Symbol> definitions;
+            if (name == null) {
+                definitions = symbols.getDefinitions(indexedLineType, getWantedSubstrings(visitor, currentFileWithType));
+            } else {
+                definitions = symbols.getDefinitions(indexedLineType, name, currentFileWithType.getName());
+            }
+            KeywordPatternMatchVisitor patternVisitor = visitor instanceof KeywordPatternMatchVisitor ? (KeywordPatternMatchVisitor) visitor : null;
+            for (SymbolIndex.Symbol definition : definitions) {
+                KeywordPattern namePattern = definition.getNamePattern();
+                if (patternVisitor != null && namePattern != null) {
+                    interest = strongest(interest, patternVisitor.visitMatch(definition.getName(), namePattern, currentFileWithType));
+                } else {
+                    interest = strongest(interest, visitor.visitMatch(definition.getLine(), currentFileWithType));
+                }
                 if (interest == STOP) {
                     return STOP;
                 }
             }
-        }
-        if (interest != CONTINUE_TO_END_OF_CURRENT_FILE) {
-            for (RobotLine line : lines) {
-                if (line.isResourceSetting()) {
-                    if (visitor.visitImport(currentFile, line)) {
-                        processLinkableFile(unprocessedFiles, allFiles, currentFile, line, FileType.RESOURCE);
-                    }
-                } else if (line.isVariableSetting()) {
-                    if (visitor.visitImport(currentFile, line)) {
-                        processLinkableFile(unprocessedFiles, allFiles, currentFile, line, FileType.VARIABLE);
+        } else {
+            RobotFile robotFile = RobotFile.get(currentFile, true);
+            if (robotFile == null) {
+                return CONTINUE;
+            }
+            for (RobotLine line : robotFile.getLines()) {
+                if (wantedLineTypes.contains(line.type)) {
+                    interest = strongest(interest, visitor.visitMatch(line, currentFileWithType));
+                    if (interest == STOP) {
+                        return STOP;
                     }
-                } else if (line.isLibrarySetting()) {
-                    if (visitor.visitImport(currentFile, line)) {
-                        processUnlinkableFile(unprocessedFiles, allFiles, line, FileType.LIBRARY, currentFileWithType.getProject());
+                }
+            }
+        }
+        if (unprocessedFiles != null && interest != CONTINUE_TO_END_OF_CURRENT_FILE) {
+            for (int i = 0; i < symbols.imports.size(); ++i) {
+                if (visitor.visitImport(currentFile, symbols.imports.get(i))) {
+                    FileWithType importedFile = getImportedFile(symbols, i, currentFileWithType);
+                    if (importedFile != null && allFiles.add(importedFile)) {
+                        unprocessedFiles.add(importedFile);
                     }
                 }
             }
@@ -134,36 +206,45 @@ public class LineFinder {
         return interest;
     }
 
-    private static void processLinkableFile(Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles, IFile currentFile, RobotLine line, FileType type) {
+    /**
+     * The relative paths of resource and variable file imports are resolved only once per parse of the importing file,
+     * or once at all if the import lines do not change.
+     * 
+     * @return the file imported on the given import line, or null if it does not exist
+     */
+    static FileWithType getImportedFile(SymbolIndex.FileSymbols symbols, int importIndex, FileWithType currentFileWithType) {
+        RobotLine line = symbols.imports.get(importIndex);
         ParsedString secondArgument = line.arguments.get(1);
-        String secondArgumentUnescaped = secondArgument.getUnescapedValue();
-        IFile resourceFile = PluginContext.getResourceManager().getRelativeFile(currentFile, secondArgumentUnescaped);
-        if (resourceFile == null) {
-            throw new IllegalStateException("Could not get relative path from \"" + currentFile + "\" to \"" + secondArgumentUnescaped + '"');
-        }
-        FileWithType fileWithType = new FileWithType(type, resourceFile);
-        if (resourceFile.exists()) {
-            addIfNew(unprocessedFiles, allFiles, fileWithType);
+        if (line.isLibrarySetting()) {
+            if (secondArgument.isEmpty()) {
+                return null;
+            }
+            return new FileWithType(FileType.LIBRARY, secondArgument.getValue(), currentFileWithType.getProject());
         }
-    }
-
-    private static void processUnlinkableFile(Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles, RobotLine line, FileType type, IProject project) {
-        ParsedString secondArgument = line.arguments.get(1);
-        FileWithType fileWithType = new FileWithType(type, secondArgument.getValue(), project);
-        if (!secondArgument.isEmpty()) {
-            addIfNew(unprocessedFiles, allFiles, fileWithType);
+        IFile importedFile = symbols.importedFiles[importIndex];
+        if (importedFile == null) {
+            IFile currentFile = currentFileWithType.getFile();
+            String secondArgumentUnescaped = secondArgument.getUnescapedValue();
+            importedFile = PluginContext.getResourceManager().getRelativeFile(currentFile, secondArgumentUnescaped);
+            if (importedFile == null) {
+                throw new IllegalStateException("Could not get relative path from \"" + currentFile + "\" to \"" + secondArgumentUnescaped + '"');
+            }
+            symbols.importedFiles[importIndex] = importedFile;
         }
-    }
-
-    private static void addIfNew(Collection<FileWithType> unprocessedFiles, Set<FileWithType> allFiles, FileWithType fileWithType) {
-        if (allFiles.add(fileWithType)) {
-            unprocessedFiles.add(fileWithType);
+        if (!importedFile.exists()) {
+            return null;
         }
+        return new FileWithType(line.isResourceSetting() ? FileType.RESOURCE : FileType.VARIABLE, importedFile);
     }
 
-    private static VisitorInterest acceptVariableOrLibraryFile(FileWithType currentFileWithType, LineMatchVisitor visitor) {
+    private static VisitorInterest acceptVariableOrLibraryFile(FileWithType currentFileWithType, String name, LineMatchVisitor visitor) {
         if (visitor.wantsLibraryKeywords()) {
-            List<String> keywords = IndexFile.getKeywords(currentFileWithType);
+            List<String> keywords;
+            if (name == null) {
+                keywords = IndexFile.getKeywords(currentFileWithType, getWantedSubstrings(visitor, currentFileWithType));
+            } else {
+                keywords = IndexFile.getKeywords(currentFileWithType, name);
+            }
             if (!keywords.isEmpty()) {
                 return acceptList(keywords, LineType.KEYWORD_TABLE_KEYWORD_BEGIN, ArgumentType.NEW_KEYWORD, visitor, currentFileWithType);
             }
@@ -175,6 +256,23 @@ public class LineFinder {
         return CONTINUE;
     }
 
+    private static Collection<String> getWantedSubstrings(LineMatchVisitor visitor, FileWithType location) {
+        if (visitor instanceof SubstringMatchFilter) {
+            return ((SubstringMatchFilter) visitor).getWantedSubstrings(location);
+        }
+        return null;
+    }
+
+    /**
+     * The strongest interest returned for any definition of a file applies to the whole file, so that the result does
+     * not depend on which definitions of the file are visited, or in which order. E.g. a definition found in the local
+     * file ends the search at priority level 1 even if it is not the last definition of the file, hiding the
+     * definitions of the same name in imported files.
+     */
+    private static VisitorInterest strongest(VisitorInterest interest, VisitorInterest other) {
+        return other.compareTo(interest) > 0 ? other : interest;
+    }
+
     static VisitorInterest acceptList(List<String> proposals, LineType lineType, ArgumentType type, LineMatchVisitor visitor, FileWithType fileWithType) {
         VisitorInterest interest = CONTINUE;
         for (String proposalStr : proposals) {
@@ -182,7 +280,7 @@ public class LineFinder {
             proposal.setType(type);
             RobotLine line = new RobotLine(-1, -1, Collections.singletonList(proposal));
             line.type = lineType;
-            interest = visitor.visitMatch(line, fileWithType);
+            interest = strongest(interest, visitor.visitMatch(line, fileWithType));
             if (interest == STOP) {
                 return STOP;
             }
@@ -45,6 +45,17 @@ public class Reporter {
         conditionallyClean(now);
     }
 
+    /**
+     * Report trace message to console, prefixed with the name of the current thread. Unlike {@link #report(String)},
+     * repeated messages are not suppressed. Callers should check the relevant {@link Trace} option first.
+     * 
+     * @param msg
+     *            the message to report
+     */
+    public static void trace(String msg) {
+        System.out.println("[" + Thread.currentThread().getName() + "] " + msg);
+    }
+
     private static void conditionallyClean(long now) {
         if (now - lastCleaned < CLEAN_INTERVAL) {
             return;
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over a list of names, for finding the names that contain a substring without lower casing and
+ * scanning all of them. Names are matched in lower case, like {@link String#contains(CharSequence)} on the
+ * {@link String#toLowerCase()} of the name would.
+ */
+public final class SubstringIndex {
+
+    private static final class Posting {
+        int[] indexes = new int[4];
+        int size;
+
+        void add(int index) {
+            if (size > 0 && indexes[size - 1] == index) {
+                // trigram repeated within the name
+                return;
+            }
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] lowerCaseNames;
+    /** the ascending indexes of the names containing each trigram */
+    private final Map<Long, int[]> trigrams = new HashMap<Long, int[]>();
+
+    public SubstringIndex(List<String> names) {
+        lowerCaseNames = new String[names.size()];
+        Map<Long, Posting> postings = new HashMap<Long, Posting>();
+        for (int i = 0; i < lowerCaseNames.length; ++i) {
+            String name = names.get(i).toLowerCase();
+            lowerCaseNames[i] = name;
+            for (int j = 0; j + 3 <= name.length(); ++j) {
+                Long trigram = trigram(name, j);
+                Posting posting = postings.get(trigram);
+                if (posting == null) {
+                    posting = new Posting();
+                    postings.put(trigram, posting);
+                }
+                posting.add(i);
+            }
+        }
+        for (Map.Entry<Long, Posting> e : postings.entrySet()) {
+            trigrams.put(e.getKey(), Arrays.copyOf(e.getValue().indexes, e.getValue().size));
+        }
+    }
+
+    private static Long trigram(String s, int start) {
+        return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+    }
+
+    /**
+     * @param lowerCaseSubstrings
+     *            the substrings to look for, in lower case
+     * @return the ascending indexes of the names that contain any of the given substrings
+     */
+    public int[] find(Collection<String> lowerCaseSubstrings) {
+        int[] found = NONE;
+        for (String substring : lowerCaseSubstrings) {
+            found = union(found, find(substring));
+        }
+        return found;
+    }
+
+    private int[] find(String lowerCaseSubstring) {
+        if (lowerCaseSubstring.length() < 3) {
+            return scan(lowerCaseSubstring, null);
+        }
+        int[] rarest = null;
+        for (int j = 0; j + 3 <= lowerCaseSubstring.length(); ++j) {
+            int[] posting = trigrams.get(trigram(lowerCaseSubstring, j));
+            if (posting == null) {
+                return NONE;
+            }
+            if (rarest == null || posting.length < rarest.length) {
+                rarest = posting;
+            }
+        }
+        return scan(lowerCaseSubstring, rarest);
+    }
+
+    /**
+     * @param candidates
+     *            the indexes of the names to check, or null for all names
+     */
+    private int[] scan(String lowerCaseSubstring, int[] candidates) {
+        int count = candidates != null ? candidates.length : lowerCaseNames.length;
+        int[] found = new int[count];
+        int foundCount = 0;
+        for (int i = 0; i < count; ++i) {
+            int index = candidates != null ? candidates[i] : i;
+            if (lowerCaseNames[index].contains(lowerCaseSubstring)) {
+                found[foundCount++] = index;
+            }
+        }
+        return foundCount == count ? found : Arrays.copyOf(found, foundCount);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] union = new int[a.length + b.length];
+        int ai = 0;
+        int bi = 0;
+        int count = 0;
+        while (ai < a.length || bi < b.length) {
+            if (bi == b.length || ai < a.length && a[ai] < b[bi]) {
+                union[count++] = a[ai++];
+            } else if (ai == a.length || b[bi] < a[ai]) {
+                union[count++] = b[bi++];
+            } else {
+                union[count++] = a[ai++];
+                ++bi;
+            }
+        }
+        return Arrays.copyOf(union, count);
+    }
+
+    /**
+     * @param items
+     *            the items the indexed names were taken from, in the same order
+     * @param lowerCaseSubstrings
+     *            the substrings to look for, in lower case
+     * @return the items whose names contain any of the given substrings, in their original order
+     */
+    public <T> List<T> filter(final List<T> items, Collection<String> lowerCaseSubstrings) {
+        assert items.size() == lowerCaseNames.length;
+        final int[] found = find(lowerCaseSubstrings);
+        if (found.length == items.size()) {
+            return items;
+        }
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return items.get(found[index]);
+            }
+
+            @Override
+            public int size() {
+                return found.length;
+            }
+        };
+    }
+}
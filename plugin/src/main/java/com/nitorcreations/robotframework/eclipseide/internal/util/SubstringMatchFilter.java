@@ -0,0 +1,31 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import java.util.Collection;
+
+/**
+ * Optionally implemented by a {@link DefinitionMatchVisitor} or {@link LineMatchVisitor} that only wants definitions
+ * whose name contains some substring, so that the candidates can be looked up from a {@link SubstringIndex} instead of
+ * passing every definition to the visitor. The visitor still checks each candidate itself.
+ */
+public interface SubstringMatchFilter {
+    /**
+     * @return the lower case substrings one of which the lower case name of each wanted definition of the given file
+     *         contains, or null if all definitions of the file may be wanted
+     */
+    Collection<String> getWantedSubstrings(FileWithType location);
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
+/**
+ * Index of the keyword and variable definitions of parsed robot files, keyed by normalized name. The index is updated
+ * by the builder on each parse, and refreshed on demand when a file has been reparsed since, e.g. because it is open in
+ * an editor.
+ */
+public class SymbolIndex {
+
+    public static final class Symbol {
+        private final IFile file;
+        private final RobotLine line;
+        /** set once before the symbol is published, for keywords only */
+        private KeywordPattern namePattern;
+
+        Symbol(IFile file, RobotLine line) {
+            this.file = file;
+            this.line = line;
+        }
+
+        public IFile getFile() {
+            return file;
+        }
+
+        public RobotLine getLine() {
+            return line;
+        }
+
+        public ParsedString getName() {
+            return line.arguments.get(0);
+        }
+
+        public int getOffset() {
+            return getName().getArgCharPos();
+        }
+
+        /**
+         * @return the name of the keyword as compiled by {@link KeywordLookup}, or null if this is not a keyword
+         */
+        public KeywordPattern getNamePattern() {
+            return namePattern;
+        }
+
+        public FileType getType() {
+            return FileType.RESOURCE;
+        }
+
+        @Override
+        public String toString() {
+            return file + "@" + getOffset() + " " + getName();
+        }
+    }
+
+    static final class FileSymbols {
+        /** weak, so that files evicted from the parse cache are not kept in memory */
+        final Reference<RobotFile> source;
+        final List<RobotLine> imports = new ArrayList<RobotLine>();
+        /** the resolved resource and variable file imports, see {@link LineFinder#getImportedFile} */
+        final IFile[] importedFiles;
+        private final Map<LineType, List<Symbol>> definitions = new EnumMap<LineType, List<Symbol>>(LineType.class);
+        private final Map<String, List<Symbol>> variablesByName = new HashMap<String, List<Symbol>>();
+        private final KeywordLookup<Symbol> keywordLookup;
+        /** built on the first substring lookup, as only completion needs them */
+        private final Map<LineType, SubstringIndex> substringIndexes = new EnumMap<LineType, SubstringIndex>(LineType.class);
+
+        FileSymbols(IFile file, RobotFile source) {
+            this.source = new WeakReference<RobotFile>(source);
+            for (LineType lineType : INDEXED_LINE_TYPES) {
+                definitions.put(lineType, new ArrayList<Symbol>());
+            }
+            for (RobotLine line : source.getLines()) {
+                if (line.isResourceSetting() || line.isVariableSetting() || line.isLibrarySetting()) {
+                    imports.add(line);
+                } else if (definitions.containsKey(line.type) && !line.arguments.isEmpty()) {
+                    Symbol symbol = new Symbol(file, line);
+                    definitions.get(line.type).add(symbol);
+                    if (line.type != LineType.VARIABLE_TABLE_LINE) {
+                        continue;
+                    }
+                    String key = normalize(symbol.getName().getValue());
+                    List<Symbol> symbols = variablesByName.get(key);
+                    if (symbols == null) {
+                        symbols = new ArrayList<Symbol>(1);
+                        variablesByName.put(key, symbols);
+                    }
+                    symbols.add(symbol);
+                }
+            }
+            List<Symbol> keywords = definitions.get(LineType.KEYWORD_TABLE_KEYWORD_BEGIN);
+            List<String> keywordNames = new ArrayList<String>(keywords.size());
+            for (Symbol keyword : keywords) {
+                keywordNames.add(keyword.getName().getValue());
+            }
+            keywordLookup = new KeywordLookup<Symbol>(keywords, keywordNames);
+            for (int i = 0; i < keywords.size(); ++i) {
+                keywords.get(i).namePattern = keywordLookup.getPattern(i);
+            }
+            importedFiles = new IFile[imports.size()];
+        }
+
+        boolean hasSameImportsAs(FileSymbols other) {
+            if (imports.size() != other.imports.size()) {
+                return false;
+            }
+            for (int i = 0; i < imports.size(); ++i) {
+                List<ParsedString> arguments = imports.get(i).arguments;
+                List<ParsedString> otherArguments = other.imports.get(i).arguments;
+                if (arguments.size() != otherArguments.size()) {
+                    return false;
+                }
+                for (int j = 0; j < arguments.size(); ++j) {
+                    if (!arguments.get(j).getValue().equals(otherArguments.get(j).getValue())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        List<Symbol> getDefinitions(LineType lineType) {
+            return definitions.get(lineType);
+        }
+
+        /**
+         * @param lowerCaseSubstrings
+         *            see {@link SubstringMatchFilter#getWantedSubstrings}, null for all definitions
+         * @return the definitions whose name contains any of the given substrings, in the order they appear in the
+         *         file
+         */
+        List<Symbol> getDefinitions(LineType lineType, Collection<String> lowerCaseSubstrings) {
+            List<Symbol> symbols = definitions.get(lineType);
+            if (lowerCaseSubstrings == null) {
+                return symbols;
+            }
+            return getSubstringIndex(lineType).filter(symbols, lowerCaseSubstrings);
+        }
+
+        private synchronized SubstringIndex getSubstringIndex(LineType lineType) {
+            SubstringIndex index = substringIndexes.get(lineType);
+            if (index == null) {
+                List<Symbol> symbols = definitions.get(lineType);
+                List<String> names = new ArrayList<String>(symbols.size());
+                for (Symbol symbol : symbols) {
+                    names.add(symbol.getName().getValue());
+                }
+                index = new SubstringIndex(names);
+                substringIndexes.put(lineType, index);
+            }
+            return index;
+        }
+
+        /**
+         * @return the definitions that may match the given name, optionally prefixed with the name of this file, in
+         *         the order they appear in the file
+         */
+        List<Symbol> getDefinitions(LineType lineType, String name, String fileName) {
+            if (lineType == LineType.KEYWORD_TABLE_KEYWORD_BEGIN) {
+                return keywordLookup.get(name, fileName);
+            }
+            List<Symbol> matches = get(variablesByName, normalize(name));
+            String filePrefix = fileName.toLowerCase() + '.';
+            if (name.toLowerCase().startsWith(filePrefix)) {
+                matches = merge(matches, get(variablesByName, normalize(name.substring(filePrefix.length()))));
+            }
+            return matches;
+        }
+
+        private static List<Symbol> get(Map<String, List<Symbol>> byName, String key) {
+            List<Symbol> symbols = byName.get(key);
+            return symbols != null ? symbols : Collections.<Symbol> emptyList();
+        }
+
+        private static List<Symbol> merge(List<Symbol> a, List<Symbol> b) {
+            if (b.isEmpty()) {
+                return a;
+            }
+            if (a.isEmpty()) {
+                return b;
+            }
+            List<Symbol> merged = new ArrayList<Symbol>(a.size() + b.size());
+            int ai = 0;
+            int bi = 0;
+            while (ai < a.size() || bi < b.size()) {
+                if (bi == b.size() || ai < a.size() && a.get(ai).line.lineNo <= b.get(bi).line.lineNo) {
+                    merged.add(a.get(ai++));
+                } else {
+                    merged.add(b.get(bi++));
+                }
+            }
+            return merged;
+        }
+    }
+
+    static final List<LineType> INDEXED_LINE_TYPES = Collections.unmodifiableList(Arrays.asList(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, LineType.VARIABLE_TABLE_LINE));
+
+    private static final Map<IFile, FileSymbols> FILES = Collections.synchronizedMap(new HashMap<IFile, FileSymbols>());
+
+    /**
+     * Robot Framework matches keyword and variable names ignoring case, spaces and underscores.
+     */
+    public static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); ++i) {
+            char ch = name.charAt(i);
+            if (ch != ' ' && ch != '_') {
+                sb.append(Character.toLowerCase(ch));
+            }
+        }
+        return sb.toString();
+    }
+
+    static boolean hasEmbeddedArguments(String name) {
+        return name.contains("${");
+    }
+
+    public static void update(IFile file, RobotFile robotFile) {
+        if (robotFile == null) {
+            remove(file);
+            return;
+        }
+        put(file, new FileSymbols(file, robotFile));
+    }
+
+    public static void remove(IFile file) {
+        FILES.remove(file);
+        ImportClosure.invalidate(file);
+    }
+
+    private static void put(IFile file, FileSymbols symbols) {
+        FileSymbols previous = FILES.put(file, symbols);
+        if (previous == null) {
+            ImportClosure.indexed(file);
+            return;
+        }
+        if (symbols.hasSameImportsAs(previous)) {
+            System.arraycopy(previous.importedFiles, 0, symbols.importedFiles, 0, symbols.importedFiles.length);
+        } else {
+            ImportClosure.invalidate(file);
+        }
+    }
+
+    /**
+     * @return the symbols of the current version of the given file, or null if the file could not be parsed
+     */
+    static FileSymbols get(IFile file) {
+        RobotFile robotFile = RobotFile.get(file, true);
+        if (robotFile == null) {
+            return null;
+        }
+        FileSymbols symbols = FILES.get(file);
+        if (symbols == null || symbols.source.get() != robotFile) {
+            symbols = new FileSymbols(file, robotFile);
+            put(file, symbols);
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import org.eclipse.core.runtime.Platform;
+
+import com.nitorcreations.robotframework.eclipseide.Activator;
+
+/**
+ * Debug tracing controlled by the options in the plug-in's <code>.options</code> file, which can be enabled e.g. in the
+ * Tracing tab of an Eclipse launch configuration. Each option is a public flag that callers check before building the
+ * trace message, so disabled tracing only costs a field read. Messages are written through {@link Reporter}.
+ */
+public final class Trace {
+
+    public static final String OPTION_DEBUG = Activator.PLUGIN_ID + "/debug";
+    public static final String OPTION_BUILDER = OPTION_DEBUG + "/builder";
+    public static final String OPTION_PARSER = OPTION_DEBUG + "/parser";
+    public static final String OPTION_PARSER_LINES = OPTION_PARSER + "/lines";
+    public static final String OPTION_EDITOR = OPTION_DEBUG + "/editor";
+
+    /**
+     * Builds, their timings and the files built.
+     */
+    public static boolean BUILDER;
+
+    /**
+     * Each file lexed, preparsed and parsed, and the imports found.
+     */
+    public static boolean PARSER;
+
+    /**
+     * Each line parsed and each parser state change. Very verbose, implies {@link #PARSER}.
+     */
+    public static boolean PARSER_LINES;
+
+    /**
+     * Documents opened and closed in editors.
+     */
+    public static boolean EDITOR;
+
+    private Trace() {}
+
+    /**
+     * Reads the trace options from the platform.
+     * 
+     * @param debugging
+     *            whether the plug-in's main debug option is enabled; if not, all tracing is disabled
+     */
+    public static void configure(boolean debugging) {
+        PARSER_LINES = debugging && isEnabled(OPTION_PARSER_LINES);
+        PARSER = PARSER_LINES || debugging && isEnabled(OPTION_PARSER);
+        BUILDER = debugging && isEnabled(OPTION_BUILDER);
+        EDITOR = debugging && isEnabled(OPTION_EDITOR);
+    }
+
+    private static boolean isEnabled(String option) {
+        return "true".equalsIgnoreCase(Platform.getDebugOption(option));
+    }
+
+    public static void trace(String msg) {
+        Reporter.trace(msg);
+    }
+}
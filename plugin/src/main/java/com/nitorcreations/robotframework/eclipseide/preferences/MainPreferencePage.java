@@ -15,7 +15,9 @@
  */
 package com.nitorcreations.robotframework.eclipseide.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 
@@ -43,6 +45,11 @@ public class MainPreferencePage extends FieldEditorPreferencePage implements IWo
      */
     @Override
     public void createFieldEditors() {
+        addField(new BooleanFieldEditor(PreferenceConstants.P_PARALLEL_BUILD, "&Parse files in parallel on full builds", getFieldEditorParent()));
+        IntegerFieldEditor parseCacheSize = new IntegerFieldEditor(PreferenceConstants.P_PARSE_CACHE_SIZE, "&Maximum number of parsed files kept in memory", getFieldEditorParent());
+        parseCacheSize.setValidRange(1, Integer.MAX_VALUE);
+        addField(parseCacheSize);
+
         // addField(new DirectoryFieldEditor(PreferenceConstants.P_PATH, "&Directory preference:",
         // getFieldEditorParent()));
         // addField(new BooleanFieldEditor(PreferenceConstants.P_BOOLEAN, "&An example of a boolean preference",
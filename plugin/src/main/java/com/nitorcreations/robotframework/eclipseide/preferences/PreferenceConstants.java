@@ -23,6 +23,7 @@ public class PreferenceConstants {
     private static final String base = "com.nitorcreations.robotframework.eclipseide.preferences.";
     private static final String baseSyntaxColoring = base + "syntaxcoloring.";
     private static final String baseTableNaming = base + "tablenaming.";
+    private static final String baseBuilder = base + "builder.";
 
     public static final String P_COMMENT = baseSyntaxColoring + "comment";
     public static final String P_TABLE = baseSyntaxColoring + "table";
@@ -44,4 +45,7 @@ public class PreferenceConstants {
     public static final String P_SETTING_TABLE_FORMAT = baseTableNaming + "settingTableFormat";
     public static final String P_TESTCASE_TABLE_FORMAT = baseTableNaming + "testcaseTableFormat";
     public static final String P_KEYWORD_TABLE_FORMAT = baseTableNaming + "keywordTableFormat";
+
+    public static final String P_PARALLEL_BUILD = baseBuilder + "parallelBuild";
+    public static final String P_PARSE_CACHE_SIZE = baseBuilder + "parseCacheSize";
 }
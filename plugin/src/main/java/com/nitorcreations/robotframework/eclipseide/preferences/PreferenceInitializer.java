@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import com.nitorcreations.robotframework.eclipseide.Activator;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.ParseCache;
 
 /**
  * Class used to initialize default preference values.
@@ -60,6 +61,10 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
         store.setDefault(PreferenceConstants.P_SETTING_TABLE_FORMAT, "* Settings");
         store.setDefault(PreferenceConstants.P_TESTCASE_TABLE_FORMAT, "* Test Cases");
         store.setDefault(PreferenceConstants.P_KEYWORD_TABLE_FORMAT, "* Keywords");
+
+        // builder preferences
+        store.setDefault(PreferenceConstants.P_PARALLEL_BUILD, false);
+        store.setDefault(PreferenceConstants.P_PARSE_CACHE_SIZE, ParseCache.DEFAULT_CAPACITY);
     }
 
 }
@@ -29,7 +29,15 @@ public class ParsedString implements IParsedKeywordString {
 
     private static String[] STRIPPABLE_PREFIXES = { "given ", "when ", "then ", "and " };
 
-    private final String value;
+    private String value;
+    /**
+     * The characters to create {@link #value} from when first needed, or null once the value has been created or if it
+     * was given as a string. Cleared so that the value does not keep the whole lexer buffer in memory, and read before
+     * the value, so that a null source guarantees the value is visible.
+     */
+    private volatile char[] source;
+    private final int sourceOffset;
+    private final int length;
     private final int argCharPos;
     private final Integer argumentIndex;
     private ArgumentType type = ArgumentType.IGNORED;
@@ -48,24 +56,79 @@ public class ParsedString implements IParsedKeywordString {
     }
 
     private ParsedString(String value, int argCharPos, Integer argumentIndex) {
+        this(value, null, 0, checkNotNull(value).length(), argCharPos, argumentIndex);
+    }
+
+    private static String checkNotNull(String value) {
         if (value == null) {
             throw new NullPointerException("value");
         }
+        return value;
+    }
+
+    /**
+     * Creates an argument whose value is created from the given characters only when first needed. The characters must
+     * not be modified afterwards.
+     * 
+     * @param source
+     *            the characters containing the value
+     * @param sourceOffset
+     *            the offset of the value in <code>source</code>
+     * @param length
+     *            the length of the value
+     */
+    public ParsedString(char[] source, int sourceOffset, int length, int argCharPos, int argumentIndex) {
+        this(null, source, sourceOffset, length, argCharPos, Integer.valueOf(argumentIndex));
+    }
+
+    private ParsedString(String value, char[] source, int sourceOffset, int length, int argCharPos, Integer argumentIndex) {
         if (argCharPos < 0) {
             throw new IllegalArgumentException("argCharPos < 0");
         }
         this.value = value;
+        this.source = source;
+        this.sourceOffset = sourceOffset;
+        this.length = length;
         this.argCharPos = argCharPos;
         this.argumentIndex = argumentIndex;
     }
 
     @Override
     public String getValue() {
+        char[] source = this.source;
+        if (source == null) {
+            return value;
+        }
+        // racy but safe, as strings are immutable
+        String value = new String(source, sourceOffset, length);
+        this.value = value;
+        this.source = null;
         return value;
     }
 
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Copies the characters of the value to the given array without creating the value string.
+     */
+    public void getChars(char[] dst, int dstBegin) {
+        char[] source = this.source;
+        if (source != null) {
+            System.arraycopy(source, sourceOffset, dst, dstBegin, length);
+        } else {
+            value.getChars(0, length, dst, dstBegin);
+        }
+    }
+
     public boolean isEmpty() {
-        return value.isEmpty() || value.equals("\\");
+        return length == 0 || length == 1 && charAt(0) == '\\';
+    }
+
+    private char charAt(int index) {
+        char[] source = this.source;
+        return source != null ? source[sourceOffset + index] : value.charAt(index);
     }
 
     @Override
@@ -75,7 +138,7 @@ public class ParsedString implements IParsedKeywordString {
 
     @Override
     public int getArgEndCharPos() {
-        return argCharPos + value.length();
+        return argCharPos + length;
     }
 
     // if argument is followed by a space, this extends the endCharPos to include that space
@@ -83,6 +146,10 @@ public class ParsedString implements IParsedKeywordString {
         return getArgEndCharPos() + (hasSpaceAfter ? 1 : 0);
     }
 
+    public boolean hasArgumentIndex() {
+        return argumentIndex != null;
+    }
+
     public int getArgumentIndex() {
         if (argumentIndex == null) {
             throw new IllegalStateException("Called getArgumentIndex() on ParsedString without argumentIndex information: " + this);
@@ -92,6 +159,7 @@ public class ParsedString implements IParsedKeywordString {
 
     @Override
     public String getAlternateValue() {
+        String value = getValue();
         String lcValue = value.toLowerCase();
         for (String strippablePrefix : STRIPPABLE_PREFIXES) {
             if (lcValue.startsWith(strippablePrefix)) {
@@ -117,7 +185,7 @@ public class ParsedString implements IParsedKeywordString {
     }
 
     public String getSimpleString() {
-        return '"' + value + "\" (" + type + ')';
+        return '"' + getValue() + "\" (" + type + ')';
     }
 
     @Override
@@ -133,7 +201,7 @@ public class ParsedString implements IParsedKeywordString {
         result = prime * result + ((argumentIndex == null) ? 0 : argumentIndex.hashCode());
         result = prime * result + (hasSpaceAfter ? 1231 : 1237);
         result = prime * result + ((type == null) ? 0 : type.hashCode());
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
+        result = prime * result + getValue().hashCode();
         return result;
     }
 
@@ -157,21 +225,18 @@ public class ParsedString implements IParsedKeywordString {
             return false;
         if (type != other.type)
             return false;
-        if (value == null) {
-            if (other.value != null)
-                return false;
-        } else if (!value.equals(other.value))
+        if (!getValue().equals(other.getValue()))
             return false;
         return true;
     }
 
     public DynamicParsedString splitRegularArgument() {
         // TODO implement
-        return new DynamicParsedString(value, argCharPos, null);
+        return new DynamicParsedString(getValue(), argCharPos, null);
     }
 
     public String getUnescapedValue() {
-        return ArgumentUtils.unescapeArgument(value, 0, value.length());
+        return ArgumentUtils.unescapeArgument(getValue(), 0, length);
     }
 
     public ParsedString setHasSpaceAfter(boolean hasSpaceAfter) {
@@ -187,12 +252,20 @@ public class ParsedString implements IParsedKeywordString {
         setType(source.getType());
     }
 
+    /**
+     * Creates a copy of this argument located <code>charPosDelta</code> characters later in the file.
+     */
+    public ParsedString copyShiftedBy(int charPosDelta) {
+        char[] source = this.source;
+        return new ParsedString(value, source, sourceOffset, length, argCharPos + charPosDelta, argumentIndex).setHasSpaceAfter(hasSpaceAfter).setType(type);
+    }
+
     public ParsedString extractRegion(IRegion region) {
         int regionEnd = region.getOffset() + region.getLength();
         if (region.getOffset() < argCharPos || regionEnd > getArgEndCharPos()) {
             throw new IndexOutOfBoundsException("region @" + region.getOffset() + "-" + (regionEnd - 1) + " outside parsedString " + getDebugString());
         }
-        ParsedString parsedStringRegion = new ParsedString(value.substring(region.getOffset() - argCharPos, regionEnd - argCharPos), region.getOffset(), argumentIndex);
+        ParsedString parsedStringRegion = new ParsedString(getValue().substring(region.getOffset() - argCharPos, regionEnd - argCharPos), region.getOffset(), argumentIndex);
         parsedStringRegion.setType(type);
         return parsedStringRegion;
     }
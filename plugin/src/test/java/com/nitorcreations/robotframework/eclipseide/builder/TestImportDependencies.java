@@ -0,0 +1,86 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.editors.IResourceManager;
+
+public class TestImportDependencies {
+
+    final IResourceManager resourceManager = mock(IResourceManager.class, "resourceManager");
+    final IFile suite = mock(IFile.class, "suite.txt");
+    final IFile otherSuite = mock(IFile.class, "other.txt");
+    final IFile common = mock(IFile.class, "common.txt");
+    final IFile base = mock(IFile.class, "base.txt");
+    final IFile vars = mock(IFile.class, "vars.py");
+
+    @Before
+    public void setup() {
+        PluginContext.setResourceManager(resourceManager);
+        when(resourceManager.getRelativeFile(suite, "common.txt")).thenReturn(common);
+        when(resourceManager.getRelativeFile(otherSuite, "base.txt")).thenReturn(base);
+        when(resourceManager.getRelativeFile(common, "base.txt")).thenReturn(base);
+        when(resourceManager.getRelativeFile(common, "vars.py")).thenReturn(vars);
+        update(suite, "*Settings\nResource  common.txt\n");
+        update(otherSuite, "*Settings\nResource  base.txt\n");
+        update(common, "*Settings\nResource  base.txt\nVariables  vars.py\n");
+        update(base, "*Keywords\nBase keyword\n");
+    }
+
+    @Test
+    public void finds_transitive_dependents() {
+        assertEquals(Arrays.asList(otherSuite, common, suite), list(ImportDependencies.getTransitiveDependents(Collections.singleton(base))));
+        assertEquals(Arrays.asList(common, suite), list(ImportDependencies.getTransitiveDependents(Collections.singleton(vars))));
+        assertEquals(Collections.emptyList(), list(ImportDependencies.getTransitiveDependents(Collections.singleton(suite))));
+    }
+
+    @Test
+    public void forgets_dropped_imports() {
+        update(common, "*Settings\nVariables  vars.py\n");
+        assertEquals(Arrays.asList(otherSuite), list(ImportDependencies.getTransitiveDependents(Collections.singleton(base))));
+    }
+
+    @Test
+    public void keeps_dependents_of_removed_file() {
+        ImportDependencies.remove(base);
+        assertEquals(Arrays.asList(otherSuite, common, suite), list(ImportDependencies.getTransitiveDependents(Collections.singleton(base))));
+        ImportDependencies.remove(common);
+        assertEquals(Arrays.asList(otherSuite), list(ImportDependencies.getTransitiveDependents(Collections.singleton(base))));
+    }
+
+    private static void update(IFile file, String contents) {
+        ImportDependencies.update(file, RobotFile.parse(contents).getLines());
+    }
+
+    private static <T> List<T> list(Collection<T> collection) {
+        return new ArrayList<T>(collection);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.headless;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestHeadlessValidator {
+
+    File dir;
+
+    @Before
+    public void setup() throws Exception {
+        dir = File.createTempFile("robot", "");
+        dir.delete();
+        dir.mkdir();
+        write("suite.robot", "*** Settings ***\nResource  common.txt\nResource  missing.txt\nResource  ${CURDIR}/whatever.txt\n");
+        write("common.txt", "*** Keywords ***\nCommon\n  Log  x\n");
+        write("sub/bad.txt", "*** Unknown ***\n");
+        write("sub/notes.md", "*** Unknown ***\n");
+        write("target/copy.txt", "*** Unknown ***\n");
+    }
+
+    @After
+    public void cleanup() {
+        delete(dir);
+    }
+
+    @Test
+    public void validates_robot_files_in_subdirectories() throws Exception {
+        List<ValidatedFile> results = validate();
+        assertEquals(3, results.size());
+        assertEquals("common.txt", results.get(0).path);
+        assertEquals("sub/bad.txt", results.get(1).path);
+        assertEquals("suite.robot", results.get(2).path);
+        assertEquals(1, results.get(1).count(IMarker.SEVERITY_ERROR));
+    }
+
+    @Test
+    public void warns_about_missing_imports_without_variables() throws Exception {
+        ValidatedFile suite = validate().get(2);
+        assertEquals(0, suite.count(IMarker.SEVERITY_ERROR));
+        assertEquals(1, suite.count(IMarker.SEVERITY_WARNING));
+        assertEquals("Imported file not found: missing.txt", suite.markers.get(0).getAttribute(IMarker.MESSAGE));
+        assertEquals(3, suite.markers.get(0).getAttribute(IMarker.LINE_NUMBER));
+    }
+
+    @Test
+    public void reports_unreadable_file_as_error() throws Exception {
+        File missing = new File(dir, "missing.txt");
+        List<ValidatedFile> results = new HeadlessValidator("UTF-8", 2).validate(Collections.singletonList(missing));
+        assertEquals(1, results.size());
+        assertEquals(missing.getPath().replace(File.separatorChar, '/'), results.get(0).path);
+        assertEquals(1, results.get(0).count(IMarker.SEVERITY_ERROR));
+        String message = (String) results.get(0).markers.get(0).getAttribute(IMarker.MESSAGE);
+        assertThat(message, containsString("Could not validate file: "));
+        assertThat(message, containsString("missing.txt"));
+    }
+
+    @Test
+    public void reports_markers_as_json() throws Exception {
+        StringWriter out = new StringWriter();
+        ReportFormat.JSON.write(validate(), out);
+        assertThat(out.toString(), containsString("\"path\": \"sub/bad.txt\""));
+        assertThat(out.toString(), containsString("\"filesValidated\": 3,\n  \"errors\": 1,\n  \"warnings\": 1\n"));
+    }
+
+    private List<ValidatedFile> validate() throws InterruptedException {
+        return new HeadlessValidator("UTF-8", 2).validate(Collections.singletonList(dir));
+    }
+
+    private void write(String path, String contents) throws IOException {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write(contents);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+
+import com.nitorcreations.robotframework.eclipseide.builder.util.NullMarkerManager;
+
+/**
+ * Measures the throughput and allocation rate of each stage of the lexer/parser pipeline on synthetic robot files, to
+ * spot performance regressions between plugin versions. Run the main method with the test classpath, optionally giving
+ * the line counts to use as arguments (default 1000 10000 100000), and the warmup and measurement time of each case
+ * in milliseconds with the system properties <code>benchmark.warmupMillis</code> (default 2000) and
+ * <code>benchmark.measureMillis</code> (default 5000). Each stage is run repeatedly on the same input
+ * after a warmup; the input for the stage is prepared by the previous stages outside the measured time.
+ * <p>
+ * Allocation is measured with the per-thread allocation counter of the HotSpot JVM and is reported as "n/a" on JVMs
+ * without one.
+ */
+public class ParserBenchmark {
+
+    private static final long WARMUP_NANOS = Long.getLong("benchmark.warmupMillis", 2000) * 1000000;
+    private static final long MEASURE_NANOS = Long.getLong("benchmark.measureMillis", 5000) * 1000000;
+    private static final int MIN_MEASURED_RUNS = 5;
+
+    enum Shape {
+        SETTINGS {
+            @Override
+            void appendBlock(StringBuilder sb, int i) {
+                sb.append("Library    Library").append(i).append("    arg").append(i).append("    WITH NAME    Lib").append(i).append('\n');
+                sb.append("Resource    resources/resource").append(i).append(".txt\n");
+                sb.append("Variables    variables").append(i).append(".py    ${arg}    @{list}\n");
+                sb.append("Suite Setup    Setup Keyword ").append(i).append("    ${VAR").append(i).append("}\n");
+                sb.append("Force Tags    tag").append(i).append("    other\n");
+                sb.append("Documentation    Settings block ").append(i).append("    # comment\n");
+            }
+
+            @Override
+            String header() {
+                return "*** Settings ***\n";
+            }
+        },
+        KEYWORDS {
+            @Override
+            void appendBlock(StringBuilder sb, int i) {
+                sb.append("Keyword ").append(i).append('\n');
+                sb.append("    [Arguments]    ${first}    ${second}=default\n");
+                sb.append("    Log    ${first} and ${second}\n");
+                sb.append("    ${result}=    Set Variable    ${second}\n");
+                sb.append("    Run Keyword If    '${result}' == 'x'    Keyword ").append(i + 1).append("    ${result}    y\n");
+                sb.append("    [Return]    ${result}\n");
+            }
+
+            @Override
+            String header() {
+                return "*** Keywords ***\n";
+            }
+        },
+        CONTINUATIONS {
+            @Override
+            void appendBlock(StringBuilder sb, int i) {
+                sb.append("Test ").append(i).append('\n');
+                sb.append("    Log Many    first    second\n");
+                sb.append("    ...    third    ${fourth}\n");
+                sb.append("    ...    @{fifth}    sixth\n");
+                sb.append("    [Teardown]    Keyword ").append(i).append("    a\n");
+                sb.append("    ...    b    c\n");
+            }
+
+            @Override
+            String header() {
+                return "*** Test Cases ***\n";
+            }
+        };
+
+        static final int LINES_PER_BLOCK = 6;
+
+        abstract String header();
+
+        abstract void appendBlock(StringBuilder sb, int i);
+
+        String generate(int lines) {
+            StringBuilder sb = new StringBuilder(lines * 40);
+            sb.append(header());
+            for (int i = 0; i < (lines - 1) / LINES_PER_BLOCK; ++i) {
+                appendBlock(sb, i);
+            }
+            return sb.toString();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    enum Stage {
+        LEX {
+            @Override
+            Object prepare(String contents) {
+                return contents;
+            }
+
+            @Override
+            void run(Object input) throws Exception {
+                new Lexer((String) input).lex();
+            }
+        },
+        SPLIT {
+            @Override
+            Object prepare(String contents) {
+                return contents.split("\n");
+            }
+
+            @Override
+            void run(Object input) throws Exception {
+                for (String line : (String[]) input) {
+                    TxtArgumentSplitter.splitLineIntoArguments(line, 0);
+                }
+            }
+        },
+        PRE_PARSE {
+            @Override
+            Object prepare(String contents) throws Exception {
+                return new Lexer(contents).lex();
+            }
+
+            @Override
+            void run(Object input) throws Exception {
+                new PreParser("benchmark", (List<RobotLine>) input).preParse();
+            }
+        },
+        ARGUMENT_PRE_PARSE {
+            @Override
+            Object prepare(String contents) throws Exception {
+                List<RobotLine> lines = new Lexer(contents).lex();
+                new PreParser("benchmark", lines).preParse();
+                return lines;
+            }
+
+            @Override
+            void run(Object input) throws Exception {
+                ArgumentPreParser app = new ArgumentPreParser();
+                app.setRange((List<RobotLine>) input);
+                app.parseAll();
+            }
+        },
+        PARSE {
+            @Override
+            Object prepare(String contents) throws Exception {
+                List<RobotLine> lines = (List<RobotLine>) ARGUMENT_PRE_PARSE.prepare(contents);
+                ARGUMENT_PRE_PARSE.run(lines);
+                return lines;
+            }
+
+            @Override
+            void run(Object input) throws Exception {
+                new RobotParser(new File("benchmark.txt"), (List<RobotLine>) input, new NullMarkerManager()).parse();
+            }
+        };
+
+        /**
+         * @return the input for {@link #run(Object)}, which may be modified by the run
+         */
+        abstract Object prepare(String contents) throws Exception;
+
+        abstract void run(Object input) throws Exception;
+    }
+
+    static final class Result {
+        int runs;
+        long nanos;
+        long allocatedBytes = -1;
+
+        double runsPerSecond() {
+            return runs * 1e9 / nanos;
+        }
+
+        double bytesPerRun() {
+            return allocatedBytes < 0 ? -1 : (double) allocatedBytes / runs;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] lineCounts = { 1000, 10000, 100000 };
+        if (args.length > 0) {
+            lineCounts = new int[args.length];
+            for (int i = 0; i < args.length; ++i) {
+                lineCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.println(String.format(Locale.ENGLISH, "%-20s %-14s %8s %12s %14s %14s", "stage", "shape", "lines", "runs/s", "lines/s", "bytes/line"));
+        for (Stage stage : Stage.values()) {
+            for (Shape shape : Shape.values()) {
+                for (int lines : lineCounts) {
+                    String contents = shape.generate(lines);
+                    measure(stage, contents, WARMUP_NANOS, 1);
+                    Result result = measure(stage, contents, MEASURE_NANOS, MIN_MEASURED_RUNS);
+                    double bytesPerLine = result.bytesPerRun() / lines;
+                    System.out.println(String.format(Locale.ENGLISH, "%-20s %-14s %8d %12.1f %14.0f %14s", stage, shape, lines, result.runsPerSecond(), result.runsPerSecond() * lines, bytesPerLine < 0 ? "n/a" : String.format(Locale.ENGLISH, "%.1f", bytesPerLine)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the stage repeatedly until both the given time and run count have been reached, excluding the time and
+     * allocations of preparing the input.
+     */
+    static Result measure(Stage stage, String contents, long minNanos, int minRuns) throws Exception {
+        Result result = new Result();
+        boolean countAllocations = getAllocatedBytes() >= 0;
+        if (countAllocations) {
+            result.allocatedBytes = 0;
+        }
+        while (result.nanos < minNanos || result.runs < minRuns) {
+            Object input = stage.prepare(contents);
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            stage.run(input);
+            result.nanos += System.nanoTime() - start;
+            if (countAllocations) {
+                result.allocatedBytes += getAllocatedBytes() - allocatedBefore;
+            }
+            ++result.runs;
+        }
+        return result;
+    }
+
+    /**
+     * The <code>getThreadAllocatedBytes(long)</code> method of the HotSpot specific thread bean, looked up by name so
+     * that the benchmark compiles and runs on other JVMs too; null if not available.
+     */
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findGetThreadAllocatedBytes();
+
+    private static Method findGetThreadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            Class<?> hotSpotBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (!hotSpotBean.isInstance(bean)) {
+                return null;
+            }
+            if (!Boolean.TRUE.equals(hotSpotBean.getMethod("isThreadAllocatedMemorySupported").invoke(bean))
+                    || !Boolean.TRUE.equals(hotSpotBean.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean))) {
+                return null;
+            }
+            return hotSpotBean.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            // not a HotSpot JVM
+            return null;
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if not supported by the JVM
+     */
+    private static long getAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
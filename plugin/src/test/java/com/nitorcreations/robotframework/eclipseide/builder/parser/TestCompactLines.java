@@ -0,0 +1,50 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
+
+public class TestCompactLines {
+
+    @Test
+    public void lines_are_restored_with_types_and_positions() throws Exception {
+        String contents = "*** Settings ***\r\nLibrary  Foo  WITH NAME  Bar \n\n*** Keywords ***\nMy Keyword\n    [Arguments]  ${arg}\n    Log  ${arg}  # comment\n    ...  more\n";
+        List<RobotLine> lines = RobotFile.parse(contents).getLines();
+
+        CompactLines compactLines = new CompactLines(lines);
+        List<RobotLine> restored = compactLines.toLines();
+
+        assertEquals(lines.size(), compactLines.size());
+        assertEquals(lines, restored);
+        assertNotSame(lines.get(1).arguments.get(0), restored.get(1).arguments.get(0));
+        assertEquals(ArgumentType.SETTING_FILE_WITH_NAME_VALUE, restored.get(1).arguments.get(3).getType());
+        assertEquals(true, restored.get(1).arguments.get(3).hasSpaceAfter());
+        assertEquals(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, restored.get(4).type);
+    }
+
+    @Test
+    public void empty_file() throws Exception {
+        List<RobotLine> lines = RobotFile.parse("").getLines();
+        assertEquals(lines, new CompactLines(lines).toLines());
+    }
+}
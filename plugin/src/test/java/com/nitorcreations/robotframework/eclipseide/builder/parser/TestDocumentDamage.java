@@ -0,0 +1,131 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.junit.Test;
+
+/**
+ * Verifies that lexing and parsing only the damaged lines of a document produces the same result as lexing and parsing
+ * the whole document.
+ */
+public class TestDocumentDamage {
+
+    private static final String CONTENTS = "*** Settings ***\nResource  foo.txt\n\n*** Test Cases ***\nTest\n    Log  ${x}\n    Log  y  z\n...  w\n";
+
+    private static final String SUITE = "*** Settings ***\nLibrary  Foo  x  WITH NAME  Bar\nSuite Setup  Run Keyword  Log  x  # c\n" //
+            + "*** Variables ***\n${v}  1\n*** Test Cases ***\nFirst\n  [Template]  Log\n  a\n  b\n" //
+            + "Second\n  ${x}  ${y}=  Get\n  ...  z\n  :FOR  ${i}  IN RANGE  10\n  \\  Log  ${i}\n# comment\n\n" //
+            + "*** Keywords ***\nGet\n  [Arguments]  ${a}\n  Run Keyword If  ${a}  Log  x\n  [Return]  1  2\n";
+
+    @Test
+    public void insert_character_at_every_offset() throws Exception {
+        for (int offset = 0; offset <= CONTENTS.length(); ++offset) {
+            assertRelexMatchesLex(CONTENTS, new Edit(offset, 0, "x"));
+            assertRelexMatchesLex(CONTENTS, new Edit(offset, 0, " "));
+            assertRelexMatchesLex(CONTENTS, new Edit(offset, 0, "\n"));
+        }
+    }
+
+    @Test
+    public void delete_character_at_every_offset() throws Exception {
+        for (int offset = 0; offset < CONTENTS.length(); ++offset) {
+            assertRelexMatchesLex(CONTENTS, new Edit(offset, 1, ""));
+        }
+    }
+
+    @Test
+    public void replace_multiple_lines() throws Exception {
+        assertRelexMatchesLex(CONTENTS, new Edit(20, 30, "foo\n\nbar  baz"));
+        assertRelexMatchesLex(CONTENTS, new Edit(0, CONTENTS.length(), ""));
+        assertRelexMatchesLex("", new Edit(0, 0, CONTENTS));
+    }
+
+    @Test
+    public void merge_consecutive_edits() throws Exception {
+        assertRelexMatchesLex(CONTENTS, new Edit(60, 0, "a"), new Edit(61, 0, "b"), new Edit(62, 0, "\n"));
+        assertRelexMatchesLex(CONTENTS, new Edit(60, 3, ""), new Edit(10, 0, "\n\n"), new Edit(70, 2, "q"));
+        assertRelexMatchesLex(CONTENTS, new Edit(10, 0, "xyz"), new Edit(5, 10, ""), new Edit(40, 5, "\n  "));
+    }
+
+    @Test
+    public void reparse_after_inserting_character_at_every_offset() throws Exception {
+        for (int offset = 0; offset <= SUITE.length(); ++offset) {
+            assertReparseMatchesParse(SUITE, new Edit(offset, 0, "x"));
+            assertReparseMatchesParse(SUITE, new Edit(offset, 0, "  "));
+            assertReparseMatchesParse(SUITE, new Edit(offset, 0, "\n"));
+            assertReparseMatchesParse(SUITE, new Edit(offset, 0, "..."));
+            assertReparseMatchesParse(SUITE, new Edit(offset, 0, "\n  ...  x="));
+        }
+    }
+
+    @Test
+    public void reparse_after_deleting_character_at_every_offset() throws Exception {
+        for (int offset = 0; offset < SUITE.length(); ++offset) {
+            assertReparseMatchesParse(SUITE, new Edit(offset, 1, ""));
+        }
+    }
+
+    @Test
+    public void reparse_after_toggling_global_test_template() throws Exception {
+        assertReparseMatchesParse(SUITE, new Edit(17, 0, "Test Template  Log\n"));
+        String withTemplate = "*** Settings ***\nTest Template  Log\n" + SUITE.substring(17);
+        assertReparseMatchesParse(withTemplate, new Edit(17, 2, ""));
+    }
+
+    private static void assertReparseMatchesParse(String contents, Edit... edits) throws Exception {
+        Document document = new Document(contents);
+        RobotFile previous = RobotFile.parse(contents);
+        DocumentDamage damage = new DocumentDamage(document);
+        for (Edit edit : edits) {
+            damage.add(edit.offset, edit.length, edit.text.length());
+            document.replace(edit.offset, edit.length, edit.text);
+        }
+        RobotFile reparsed = RobotFile.reparse("<in-memory file>", previous, damage);
+        assertNotNull(reparsed);
+        assertEquals(document.get(), RobotFile.parse(document.get()).getLines(), reparsed.getLines());
+    }
+
+    private static void assertRelexMatchesLex(String contents, Edit... edits) throws Exception {
+        Document document = new Document(contents);
+        List<RobotLine> oldLines = new Lexer(contents).lex();
+        DocumentDamage damage = new DocumentDamage(document);
+        for (Edit edit : edits) {
+            damage.add(edit.offset, edit.length, edit.text.length());
+            document.replace(edit.offset, edit.length, edit.text);
+        }
+        List<RobotLine> relexed = damage.relex("<in-memory file>", oldLines);
+        assertNotNull(relexed);
+        assertEquals(new Lexer(document.get()).lex(), relexed);
+    }
+
+    private static class Edit {
+        final int offset;
+        final int length;
+        final String text;
+
+        Edit(int offset, int length, String text) {
+            this.offset = offset;
+            this.length = length;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFileContents {
+
+    final IFile file = mock(IFile.class, "file");
+    File localFile;
+
+    @Before
+    public void setup() throws Exception {
+        localFile = File.createTempFile("robot", ".txt");
+        when(file.getCharset()).thenReturn("UTF-8");
+    }
+
+    @After
+    public void cleanup() {
+        localFile.delete();
+    }
+
+    @Test
+    public void reads_local_files_directly() throws Exception {
+        FileOutputStream out = new FileOutputStream(localFile);
+        try {
+            out.write("*** Test Cases ***\nT\u00e4st\n".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        IPath location = mock(IPath.class, "location");
+        when(location.toFile()).thenReturn(localFile);
+        when(file.getLocation()).thenReturn(location);
+
+        assertEquals("*** Test Cases ***\nT\u00e4st\n", FileContents.read(file));
+        verify(file, never()).getContents();
+    }
+
+    @Test
+    public void reads_virtual_files_through_stream() throws Exception {
+        when(file.getContents()).thenReturn(new ByteArrayInputStream("T\u00e4st".getBytes("UTF-8")));
+
+        assertEquals("T\u00e4st", FileContents.read(file));
+    }
+
+    @Test
+    public void replaces_malformed_input() throws Exception {
+        FileOutputStream out = new FileOutputStream(localFile);
+        try {
+            out.write(new byte[] { 'a', (byte) 0xff, 'b' });
+        } finally {
+            out.close();
+        }
+
+        assertEquals("a\ufffdb", FileContents.decode(localFile, "UTF-8").toString());
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.internal.util.FileType;
+import com.nitorcreations.robotframework.eclipseide.internal.util.FileWithType;
+
+public class TestIndexFile {
+
+    final IProject project = mock(IProject.class, "project");
+    final IFile indexFile = mock(IFile.class, "Lib.index");
+    final FileWithType library = new FileWithType(FileType.LIBRARY, "Lib", project);
+
+    @Before
+    public void setup() throws Exception {
+        IWorkspace workspace = mock(IWorkspace.class, "workspace");
+        IWorkspaceRoot workspaceRoot = mock(IWorkspaceRoot.class, "workspaceRoot");
+        IPath projectFullPath = mock(IPath.class, "projectFullPath");
+        IPath indexPath = mock(IPath.class, "indexPath");
+        when(project.getFullPath()).thenReturn(projectFullPath);
+        when(project.getWorkspace()).thenReturn(workspace);
+        when(workspace.getRoot()).thenReturn(workspaceRoot);
+        when(projectFullPath.append("robot-indices/Lib.index")).thenReturn(indexPath);
+        when(workspaceRoot.getFile(indexPath)).thenReturn(indexFile);
+        when(indexFile.exists()).thenReturn(true);
+        when(indexFile.getModificationStamp()).thenReturn(1L);
+        setContents("First Keyword\n${VAR}\n");
+    }
+
+    @Test
+    public void reads_index_file_once_while_unmodified() throws Exception {
+        assertEquals("[First Keyword]", IndexFile.getKeywords(library).toString());
+        assertEquals("[First Keyword]", IndexFile.getKeywords(library).toString());
+        verify(indexFile, times(1)).getContents(true);
+    }
+
+    @Test
+    public void rereads_index_file_when_modified() throws Exception {
+        assertEquals("[First Keyword]", IndexFile.getKeywords(library).toString());
+        setContents("Second Keyword\n");
+        when(indexFile.getModificationStamp()).thenReturn(2L);
+        assertEquals("[Second Keyword]", IndexFile.getKeywords(library).toString());
+        verify(indexFile, times(2)).getContents(true);
+    }
+
+    private void setContents(String contents) throws Exception {
+        when(indexFile.getContents(true)).thenReturn(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+    }
+}
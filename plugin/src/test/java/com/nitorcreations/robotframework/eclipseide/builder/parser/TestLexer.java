@@ -23,6 +23,8 @@ import java.util.List;
 
 import org.junit.Test;
 
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString;
+
 /**
  * {@link Lexer} does not assign values to {@link RobotLine#type}, so we do not test it here.
  */
@@ -180,4 +182,46 @@ public class TestLexer {
         assertThat(line2.arguments.size(), is(0));
     }
 
+    @Test
+    public void long_lines_across_buffer_boundaries() throws Exception {
+        StringBuilder contents = new StringBuilder();
+        int[] lengths = { 8190, 3, 20000, 1, 9000 };
+        for (int length : lengths) {
+            StringBuilder cell = new StringBuilder();
+            for (int i = 0; i < length; ++i) {
+                cell.append((char) ('a' + i % 26));
+            }
+            contents.append(cell).append("  x\r\n");
+        }
+        List<RobotLine> lines = new Lexer(contents.toString()).lex();
+        assertEquals(lengths.length + 1, lines.size());
+        int charPos = 0;
+        for (int i = 0; i < lengths.length; ++i) {
+            RobotLine line = lines.get(i);
+            assertThat(line.lineCharPos, is(charPos));
+            assertThat(line.arguments.size(), is(2));
+            assertThat(line.arguments.get(0).getValue().length(), is(lengths[i]));
+            assertThat(line.arguments.get(0).getValue().charAt(lengths[i] - 1), is((char) ('a' + (lengths[i] - 1) % 26)));
+            assertThat(line.arguments.get(1).getValue(), is("x"));
+            assertThat(line.arguments.get(1).getArgCharPos(), is(charPos + lengths[i] + 2));
+            charPos += lengths[i] + 5;
+        }
+        assertThat(lines.get(lengths.length).lineCharPos, is(charPos));
+    }
+
+    @Test
+    public void argument_values_survive_creation_and_shifting() throws Exception {
+        List<RobotLine> lines = new Lexer("foo  bar\nbaz").lex();
+        ParsedString bar = lines.get(0).arguments.get(1);
+        ParsedString shiftedBeforeValue = bar.copyShiftedBy(10);
+        assertThat(bar.getValue(), is("bar"));
+        ParsedString shiftedAfterValue = bar.copyShiftedBy(20);
+        assertThat(bar.getValue(), is("bar"));
+        assertThat(shiftedBeforeValue.getValue(), is("bar"));
+        assertThat(shiftedBeforeValue.getArgCharPos(), is(15));
+        assertThat(shiftedAfterValue.getValue(), is("bar"));
+        assertThat(shiftedAfterValue.getArgCharPos(), is(25));
+        assertThat(lines.get(1).arguments.get(0).getValue(), is("baz"));
+    }
+
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.eclipse.core.resources.IFile;
+import org.junit.Test;
+
+public class TestParseCache {
+
+    private final ParseCache cache = new ParseCache(2);
+    private final IFile file1 = mock(IFile.class);
+    private final IFile file2 = mock(IFile.class);
+    private final IFile file3 = mock(IFile.class);
+    private final RobotFile robotFile = RobotFile.parse("");
+
+    @Test
+    public void least_recently_used_file_is_evicted() throws Exception {
+        cache.put(file1, robotFile, 1);
+        cache.put(file2, robotFile, 1);
+        assertSame(robotFile, cache.get(file1, 1));
+        cache.put(file3, robotFile, 1);
+
+        assertSame(robotFile, cache.get(file1, 1));
+        assertNull(cache.get(file2, 1));
+        assertSame(robotFile, cache.get(file3, 1));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void modified_file_is_a_miss() throws Exception {
+        cache.put(file1, robotFile, 1);
+        assertNull(cache.get(file1, 2));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void lowering_capacity_evicts_eldest_files() throws Exception {
+        cache.put(file1, robotFile, 1);
+        cache.put(file2, robotFile, 1);
+        cache.setCapacity(1);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(robotFile, cache.get(file2, 1));
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestParseCacheSnapshot {
+
+    @Test
+    public void files_are_restored_with_lines_and_content_hashes() throws Exception {
+        String contents = "*** Settings ***\nResource  common.txt\nTest Template  My Keyword\n\n*** Keywords ***\nMy Keyword\n    [Arguments]  ${arg}\n    Log  ${arg}\n";
+        RobotFile parsed = RobotFile.parse(contents);
+        RobotFile saved = RobotFile.restore(new CompactLines(parsed.getLines()), true, ParseCacheSnapshot.hash(contents));
+        Map<String, RobotFile> files = new LinkedHashMap<String, RobotFile>();
+        files.put("/project/b.txt", saved);
+        files.put("/project/a.txt", RobotFile.restore(new CompactLines(RobotFile.parse("").getLines()), false, 1));
+
+        Map<String, RobotFile> restored = readBack(files);
+
+        assertEquals(files.keySet(), restored.keySet());
+        RobotFile restoredFile = restored.get("/project/b.txt");
+        assertEquals(parsed.getLines(), restoredFile.getLines());
+        assertEquals(ParseCacheSnapshot.hash(contents), restoredFile.getContentHash());
+        assertTrue(restoredFile.hasGlobalTestTemplate());
+        assertEquals(RobotFile.parse("").getLines(), restored.get("/project/a.txt").getLines());
+    }
+
+    @Test
+    public void hash_depends_on_contents() throws Exception {
+        assertEquals(ParseCacheSnapshot.hash("Log  foo"), ParseCacheSnapshot.hash("Log  foo"));
+        assertFalse(ParseCacheSnapshot.hash("Log  foo") == ParseCacheSnapshot.hash("Log  fop"));
+    }
+
+    @Test(expected = IOException.class)
+    public void other_files_are_rejected() throws Exception {
+        ParseCacheSnapshot.read(new DataInputStream(new ByteArrayInputStream("*** Settings ***\n".getBytes("UTF-8"))));
+    }
+
+    private static Map<String, RobotFile> readBack(Map<String, RobotFile> files) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ParseCacheSnapshot.write(out, files);
+        out.close();
+        return ParseCacheSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
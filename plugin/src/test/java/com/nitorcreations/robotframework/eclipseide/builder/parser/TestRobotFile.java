@@ -0,0 +1,167 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.editors.IResourceManager;
+import com.nitorcreations.robotframework.eclipseide.structure.ParsedString.ArgumentType;
+
+public class TestRobotFile {
+
+    private static final String CONTENTS = "*** Test Cases ***\nCase\n    [Template]  My Keyword\n    a  b\n    ...  c\n\nOther Case\n    ${x}=  My Keyword\n    ...  arg\n*** Keywords ***\nMy Keyword\n    Log  x\n";
+
+    @Test
+    public void reparsed_line_matches_full_parse() throws Exception {
+        RobotFile robotFile = RobotFile.parse(CONTENTS);
+        List<RobotLine> lines = robotFile.getLines();
+        for (int lineNo = 0; lineNo < lines.size(); ++lineNo) {
+            int lineStart = lines.get(lineNo).lineCharPos;
+            int lineEnd = CONTENTS.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = CONTENTS.length();
+            }
+            String modified = CONTENTS.substring(0, lineEnd) + "  x" + CONTENTS.substring(lineEnd);
+
+            RobotLine reparsed = robotFile.reparseLine("test", lineNo, CONTENTS.substring(lineStart, lineEnd) + "  x");
+
+            assertEquals(RobotFile.parse(modified).getLines().get(lineNo), reparsed);
+        }
+        assertEquals(RobotFile.parse(CONTENTS).getLines(), lines);
+    }
+
+    @Test
+    public void reparsed_line_uses_template_of_test_case() throws Exception {
+        RobotLine reparsed = RobotFile.parse(CONTENTS).reparseLine("test", 3, "    a  b  d");
+        assertEquals(ArgumentType.KEYWORD_ARG, reparsed.arguments.get(3).getType());
+    }
+
+    @Test
+    public void reparsed_line_uses_global_template_of_file() throws Exception {
+        RobotFile robotFile = RobotFile.parse("*** Settings ***\nTest Template  My Keyword\n*** Test Cases ***\nCase\n    a  b\n");
+        RobotLine reparsed = robotFile.reparseLine("test", 4, "    a  b  c");
+        assertEquals(ArgumentType.KEYWORD_ARG, reparsed.arguments.get(1).getType());
+        assertEquals(ArgumentType.KEYWORD_ARG, reparsed.arguments.get(3).getType());
+    }
+
+    @Test
+    public void reparsed_line_can_add_global_template() throws Exception {
+        RobotFile robotFile = RobotFile.parse("*** Settings ***\nDocumentation  x\n*** Test Cases ***\nCase\n    a  b\n");
+        RobotLine reparsed = robotFile.reparseLine("test", 1, "Test Template  My Keyword");
+        assertEquals(ArgumentType.SETTING_KEY, reparsed.arguments.get(0).getType());
+        assertEquals(ArgumentType.KEYWORD_CALL, reparsed.arguments.get(1).getType());
+    }
+
+    @Test
+    public void scanned_file_is_parsed_but_not_cached() throws Exception {
+        IFile file = mock(IFile.class);
+        when(file.getContents()).thenReturn(new ByteArrayInputStream("*** Settings ***\nResource  other.txt\n".getBytes("UTF-8")));
+        when(file.getCharset()).thenReturn("UTF-8");
+        when(file.getModificationStamp()).thenReturn(1L);
+
+        List<RobotLine> lines = RobotFile.scan(file);
+
+        assertTrue(lines.get(1).isResourceSetting());
+        assertFalse(RobotFile.getOnDiskCache().getFiles().contains(file));
+    }
+
+    @Test
+    public void document_result_is_shared_until_document_is_modified() throws Exception {
+        Document document = new Document(CONTENTS);
+        resolveFile(document, "shared.txt");
+
+        RobotFile first = RobotFile.get(document);
+
+        assertSame(first, RobotFile.get(document));
+        assertEquals(document.getModificationStamp(), first.getModificationStamp());
+        assertEquals(RobotFile.parse(CONTENTS).getLines(), first.getLines());
+    }
+
+    @Test
+    public void document_result_is_stale_after_modification() throws Exception {
+        Document document = new Document(CONTENTS);
+        resolveFile(document, "modified.txt");
+        RobotFile first = RobotFile.get(document);
+
+        document.replace(CONTENTS.indexOf("a  b"), 0, "x  ");
+
+        assertFalse(first.getModificationStamp() == document.getModificationStamp());
+        RobotFile second = RobotFile.get(document);
+        assertNotSame(first, second);
+        assertEquals(document.getModificationStamp(), second.getModificationStamp());
+        assertEquals(RobotFile.parse(document.get()).getLines(), second.getLines());
+        assertSame(second, RobotFile.get(document));
+    }
+
+    @Test
+    public void document_without_modification_stamps_is_tracked_by_its_damage() throws Exception {
+        Document delegate = new Document(CONTENTS);
+        IDocument document = mock(IDocument.class, AdditionalAnswers.delegatesTo(delegate));
+        resolveFile(document, "unstamped.txt");
+        RobotFile first = RobotFile.get(document);
+
+        assertEquals(IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, first.getModificationStamp());
+        assertSame(first, RobotFile.get(document));
+
+        delegate.replace(CONTENTS.indexOf("a  b"), 0, "x  ");
+
+        RobotFile second = RobotFile.get(document);
+        assertNotSame(first, second);
+        assertEquals(IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, second.getModificationStamp());
+        assertEquals(RobotFile.parse(delegate.get()).getLines(), second.getLines());
+        assertSame(second, RobotFile.get(document));
+    }
+
+    @Test
+    public void canceled_document_parse_is_not_published() throws Exception {
+        Document document = new Document(CONTENTS);
+        resolveFile(document, "canceled.txt");
+        NullProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+
+        assertNull(RobotFile.get(document, monitor));
+
+        RobotFile parsed = RobotFile.get(document);
+        assertEquals(RobotFile.parse(CONTENTS).getLines(), parsed.getLines());
+        assertSame(parsed, RobotFile.get(document, monitor));
+    }
+
+    private static void resolveFile(IDocument document, String fileName) {
+        IResourceManager resourceManager = mock(IResourceManager.class);
+        IFile file = mock(IFile.class, fileName);
+        when(resourceManager.resolveFileFor(document)).thenReturn(file);
+        PluginContext.setResourceManager(resourceManager);
+    }
+}
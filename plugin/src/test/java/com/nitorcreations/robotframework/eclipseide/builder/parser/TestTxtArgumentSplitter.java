@@ -165,4 +165,41 @@ public class TestTxtArgumentSplitter {
         }
     }
 
+    public static class Splitting_from_buffer {
+        @Test
+        public void line_at_nonzero_start_of_buffer() {
+            assertSplitsLike("*Keywords\nfoo  bar\tbaz\n", 10, 22, 110);
+        }
+
+        @Test
+        public void line_ending_before_end_of_buffer() {
+            assertSplitsLike("foo  bar  baz  quux", 0, 13, 0);
+        }
+
+        @Test
+        public void trailing_whitespace_and_empty_cells_before_end_are_trimmed() {
+            assertSplitsLike("xx\n  foo  bar  \\  \t\nyy", 3, 19, 50);
+            assertSplitsLike("xx\nfoo  bar  \nyy", 3, 13, 50);
+        }
+
+        @Test
+        public void whitespace_only_line_in_buffer_has_no_arguments() {
+            assertEquals(0, TxtArgumentSplitter.splitLineIntoArguments("foo\n  \t \nbar".toCharArray(), 4, 8, 4).size());
+        }
+
+        /**
+         * Splitting the given range of the buffer must give the same arguments as splitting the range as a string.
+         */
+        private static void assertSplitsLike(String buffer, int start, int end, int charPos) {
+            List<ParsedString> expected = s(buffer.substring(start, end), charPos);
+            List<ParsedString> actual = TxtArgumentSplitter.splitLineIntoArguments(buffer.toCharArray(), start, end, charPos);
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+                assertEquals(expected.get(i).hasSpaceAfter(), actual.get(i).hasSpaceAfter());
+            }
+        }
+    }
+
 }
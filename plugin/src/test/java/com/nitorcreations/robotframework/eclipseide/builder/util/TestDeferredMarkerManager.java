@@ -0,0 +1,119 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.builder.util;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.nitorcreations.robotframework.eclipseide.builder.RobotBuilder;
+
+public class TestDeferredMarkerManager {
+
+    final IFile file = mock(IFile.class, "file");
+    final DeferredMarkerManager markerManager = new DeferredMarkerManager(file);
+
+    @Test
+    public void creates_recorded_markers_on_apply() throws Exception {
+        IMarker realMarker = mock(IMarker.class, "realMarker");
+        when(file.createMarker(RobotBuilder.MARKER_TYPE)).thenReturn(realMarker);
+
+        markerManager.eraseMarkers();
+        createMarker("Problem", 3);
+        verify(file, never()).createMarker(RobotBuilder.MARKER_TYPE);
+
+        markerManager.apply();
+
+        InOrder inOrder = inOrder(file, realMarker);
+        inOrder.verify(file).createMarker(RobotBuilder.MARKER_TYPE);
+        inOrder.verify(realMarker).setAttributes(attributes("Problem", 3));
+    }
+
+    @Test
+    public void keeps_equal_existing_markers_and_deletes_others() throws Exception {
+        IMarker unchangedMarker = mock(IMarker.class, "unchangedMarker");
+        when(unchangedMarker.getAttributes()).thenReturn(attributes("Same", 1));
+        IMarker obsoleteMarker = mock(IMarker.class, "obsoleteMarker");
+        when(obsoleteMarker.getAttributes()).thenReturn(attributes("Fixed", 2));
+        when(file.findMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO)).thenReturn(new IMarker[] { unchangedMarker, obsoleteMarker });
+
+        markerManager.eraseMarkers();
+        createMarker("Same", 1);
+
+        markerManager.apply();
+
+        verify(unchangedMarker, never()).delete();
+        verify(obsoleteMarker).delete();
+        verify(file, never()).createMarker(RobotBuilder.MARKER_TYPE);
+    }
+
+    @Test
+    public void matches_equal_markers_one_to_one() throws Exception {
+        IMarker keptMarker = mock(IMarker.class, "keptMarker");
+        when(keptMarker.getAttributes()).thenReturn(attributes("Twice", 1));
+        IMarker extraMarker = mock(IMarker.class, "extraMarker");
+        when(extraMarker.getAttributes()).thenReturn(attributes("Once", 2));
+        IMarker duplicateMarker = mock(IMarker.class, "duplicateMarker");
+        when(duplicateMarker.getAttributes()).thenReturn(attributes("Once", 2));
+        when(file.findMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO)).thenReturn(new IMarker[] { keptMarker, extraMarker, duplicateMarker });
+        IMarker realMarker = mock(IMarker.class, "realMarker");
+        when(file.createMarker(RobotBuilder.MARKER_TYPE)).thenReturn(realMarker);
+
+        markerManager.eraseMarkers();
+        createMarker("Twice", 1);
+        createMarker("Once", 2);
+        createMarker("Twice", 1);
+
+        markerManager.apply();
+
+        verify(keptMarker, never()).delete();
+        verify(extraMarker, never()).delete();
+        verify(duplicateMarker).delete();
+        verify(file).createMarker(RobotBuilder.MARKER_TYPE);
+        verify(realMarker).setAttributes(attributes("Twice", 1));
+    }
+
+    @Test
+    public void does_not_erase_unless_asked() throws Exception {
+        markerManager.apply();
+        verify(file, never()).findMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO);
+        verify(file, never()).deleteMarkers(RobotBuilder.MARKER_TYPE, false, IResource.DEPTH_ZERO);
+    }
+
+    private void createMarker(String message, int line) throws Exception {
+        IMarker marker = markerManager.createMarker(RobotBuilder.MARKER_TYPE);
+        marker.setAttribute(IMarker.MESSAGE, message);
+        marker.setAttribute(IMarker.LINE_NUMBER, line);
+    }
+
+    private static Map<String, Object> attributes(String message, int line) {
+        Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+        attributes.put(IMarker.MESSAGE, message);
+        attributes.put(IMarker.LINE_NUMBER, line);
+        return attributes;
+    }
+}
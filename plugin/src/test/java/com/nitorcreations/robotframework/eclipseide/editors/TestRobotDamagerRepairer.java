@@ -0,0 +1,67 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.editors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+
+public class TestRobotDamagerRepairer {
+
+    private static final String TESTCASE = "*** Test Cases ***\nTest\n  Log  x\n  Log  y\n  ...  z\n  Log  w\n";
+
+    @Test
+    public void unchanged_document_has_no_changed_lines() {
+        assertNull(changedLines(TESTCASE, TESTCASE));
+    }
+
+    @Test
+    public void whitespace_after_last_argument_changes_no_lines() {
+        assertNull(changedLines(TESTCASE, TESTCASE.replace("  Log  y\n", "  Log  y  \n")));
+    }
+
+    @Test
+    public void edit_within_argument_changes_only_that_line() {
+        assertArrayEquals(new int[] { 2, 2 }, changedLines(TESTCASE, TESTCASE.replace("Log  x", "Log  xx")));
+    }
+
+    @Test
+    public void inserted_line_changes_only_that_line() {
+        assertArrayEquals(new int[] { 3, 3 }, changedLines(TESTCASE, TESTCASE.replace("  Log  y\n", "  Foo\n  Log  y\n")));
+    }
+
+    @Test
+    public void assignment_on_continuation_line_changes_preceding_line_too() {
+        assertArrayEquals(new int[] { 3, 4 }, changedLines(TESTCASE, TESTCASE.replace("  Log  y\n  ...  z", "  ${y}  ${x}\n  ...  ${z}=")));
+    }
+
+    @Test
+    public void template_changes_following_lines() {
+        assertArrayEquals(new int[] { 2, 5 }, changedLines(TESTCASE, TESTCASE.replace("  Log  x\n", "  [Template]  Log\n")));
+    }
+
+    private static int[] changedLines(String oldContents, String newContents) {
+        List<RobotLine> oldLines = RobotFile.parse(oldContents).getLines();
+        List<RobotLine> newLines = RobotFile.parse(newContents).getLines();
+        return RobotDamagerRepairer.getLinesWithChangedArguments(oldLines, newLines, newContents.length() - oldContents.length());
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.editors;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension2;
+import org.eclipse.jface.text.Region;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+
+/**
+ * Verifies the part of reconciling that is deferred to the UI thread, after the document has been parsed in the
+ * background.
+ */
+public class TestRobotReconcilingStrategy {
+
+    private static final String CONTENTS = "*** Test Cases ***\nTest\n  Log  x\n";
+
+    final IResourceManager resourceManager = mock(IResourceManager.class, "resourceManager");
+    final ITextViewer viewer = mock(ITextViewer.class, withSettings().extraInterfaces(ITextViewerExtension2.class));
+    final RobotDamagerRepairer damagerRepairer = mock(RobotDamagerRepairer.class, "damagerRepairer");
+    final RobotReconcilingStrategy strategy = new RobotReconcilingStrategy(viewer, damagerRepairer);
+
+    Document document;
+
+    @Before
+    public void setup() throws Exception {
+        PluginContext.setResourceManager(resourceManager);
+        document = new Document(CONTENTS);
+        when(resourceManager.resolveFileFor(document)).thenReturn(mock(IFile.class, "reconciled.txt"));
+        when(viewer.getDocument()).thenReturn(document);
+    }
+
+    @Test
+    public void invalidates_damage_of_up_to_date_result() throws Exception {
+        RobotFile robotFile = RobotFile.get(document);
+        when(damagerRepairer.presentationChanged(robotFile.getLines(), CONTENTS.length())).thenReturn(new Region(19, 5));
+
+        strategy.updatePresentation(document, robotFile);
+
+        verify((ITextViewerExtension2) viewer).invalidateTextPresentation(19, 5);
+        verify(viewer, never()).invalidateTextPresentation();
+    }
+
+    @Test
+    public void skips_result_outdated_by_later_modification() throws Exception {
+        RobotFile robotFile = RobotFile.get(document);
+        document.replace(CONTENTS.length(), 0, "  Log  y\n");
+
+        strategy.updatePresentation(document, robotFile);
+
+        verifyZeroInteractions(damagerRepairer);
+        verify((ITextViewerExtension2) viewer, never()).invalidateTextPresentation(anyInt(), anyInt());
+    }
+
+    @Test
+    public void skips_result_of_document_no_longer_in_viewer() throws Exception {
+        RobotFile robotFile = RobotFile.get(document);
+        when(viewer.getDocument()).thenReturn(new Document(CONTENTS));
+
+        strategy.updatePresentation(document, robotFile);
+
+        verifyZeroInteractions(damagerRepairer);
+    }
+
+    @Test
+    public void does_not_invalidate_without_changed_lines() throws Exception {
+        RobotFile robotFile = RobotFile.get(document);
+
+        strategy.updatePresentation(document, robotFile);
+
+        verify(damagerRepairer).presentationChanged(robotFile.getLines(), CONTENTS.length());
+        verify((ITextViewerExtension2) viewer, never()).invalidateTextPresentation(anyInt(), anyInt());
+        verify(viewer, never()).invalidateTextPresentation();
+    }
+
+    @Test
+    public void invalidates_whole_presentation_of_basic_viewer() throws Exception {
+        ITextViewer basicViewer = mock(ITextViewer.class, "basicViewer");
+        when(basicViewer.getDocument()).thenReturn(document);
+        RobotFile robotFile = RobotFile.get(document);
+        when(damagerRepairer.presentationChanged(robotFile.getLines(), CONTENTS.length())).thenReturn(new Region(19, 5));
+
+        new RobotReconcilingStrategy(basicViewer, damagerRepairer).updatePresentation(document, robotFile);
+
+        verify(basicViewer).invalidateTextPresentation();
+    }
+}
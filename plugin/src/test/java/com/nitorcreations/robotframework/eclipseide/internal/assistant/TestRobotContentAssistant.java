@@ -18,9 +18,10 @@ package com.nitorcreations.robotframework.eclipseide.internal.assistant;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
-import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -39,6 +40,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 
 import com.nitorcreations.robotframework.eclipseide.PluginContext;
 import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
@@ -95,13 +97,15 @@ public class TestRobotContentAssistant {
             when(resourceManager.resolveFileFor(document)).thenReturn(origFile);
             when(document.get()).thenReturn(FILE_CONTENTS);
             when(document.getLineOfOffset(FAKE_DOCUMENT_OFFSET)).thenReturn(FAKE_LINE_NO);
-            when(rca2.generateProposals(eq(origFile), eq(FAKE_DOCUMENT_OFFSET), eq(FILE_CONTENTS), anyListOf(RobotLine.class), eq(FAKE_LINE_NO))).thenReturn(EXPECTED_PROPOSALS);
+            when(rca2.generateProposals(eq(origFile), eq(FAKE_DOCUMENT_OFFSET), same(document), any(RobotFile.class), eq(FAKE_LINE_NO))).thenReturn(EXPECTED_PROPOSALS);
 
             ICompletionProposal[] proposals = assistant.computeCompletionProposals(textViewer, FAKE_DOCUMENT_OFFSET);
 
             assertThat(proposals, is(sameInstance(EXPECTED_PROPOSALS)));
             List<RobotLine> lines = RobotFile.parse(FILE_CONTENTS).getLines();
-            verify(rca2).generateProposals(origFile, FAKE_DOCUMENT_OFFSET, FILE_CONTENTS, lines, FAKE_LINE_NO);
+            ArgumentCaptor<RobotFile> robotFile = ArgumentCaptor.forClass(RobotFile.class);
+            verify(rca2).generateProposals(eq(origFile), eq(FAKE_DOCUMENT_OFFSET), same(document), robotFile.capture(), eq(FAKE_LINE_NO));
+            assertThat(robotFile.getValue().getLines(), is(lines));
             verifyNoMoreInteractions(rca2);
         }
     }
@@ -35,6 +35,8 @@ import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.junit.After;
 import org.junit.Before;
@@ -66,9 +68,10 @@ public class TestRobotContentAssistant2 {
         IRobotContentAssistant2 assistant;
 
         final IFile dummyFile = mock(IFile.class);
+        final IDocument dummyDocument = mock(IDocument.class);
+        final RobotFile dummyRobotFile = mock(RobotFile.class);
 
         static final int dummyLineNo = 0;
-        static final String dummyContent = "";
         static final int dummyLineCharPos = 33;
         static final int dummyDocumentOffset = dummyLineCharPos + 4;
         static final ParsedString dummyArgument = new ParsedString("foo", dummyLineCharPos + 1, 0).setType(ArgumentType.COMMENT);
@@ -82,6 +85,8 @@ public class TestRobotContentAssistant2 {
             relevantProposalsFilter = mock(IRelevantProposalsFilter.class, "relevantProposalsFilter");
             assistant = new RobotContentAssistant2(proposalSuitabilityDeterminer, attemptGenerator, relevantProposalsFilter);
 
+            when(dummyRobotFile.getLines()).thenReturn(dummyLines);
+
             PluginContext.setResourceManager(null);
         }
 
@@ -96,11 +101,12 @@ public class TestRobotContentAssistant2 {
     public static class Makes_sure_we_have_an_argument_for_the_current_cursor_position {
         @Ignore
         public static abstract class ArgumentBase extends Base {
-            protected final void doTest(Content content, List<RobotLine> lines, int lineNo, ParsedString argument) {
+            protected final void doTest(Content content, RobotFile robotFile, int lineNo, ParsedString argument) {
+                List<RobotLine> lines = robotFile.getLines();
                 int documentOffset = content.o("cursor");
                 when(proposalSuitabilityDeterminer.generateAttemptVisitors(dummyFile, argument, documentOffset, lines.get(lineNo).lineCharPos)).thenReturn(dummyNoVisitorInfos);
 
-                assistant.generateProposals(dummyFile, documentOffset, content.c(), lines, lineNo);
+                assistant.generateProposals(dummyFile, documentOffset, new Document(content.c()), robotFile, lineNo);
 
                 verify(proposalSuitabilityDeterminer).generateAttemptVisitors(dummyFile, argument, documentOffset, lines.get(lineNo).lineCharPos);
             }
@@ -211,8 +217,7 @@ public class TestRobotContentAssistant2 {
                 }
 
                 private void doTest(Content content, ParsedString argument, int lineNo) {
-                    List<RobotLine> lines = RobotFile.parse(content.c()).getLines();
-                    doTest(content, lines, lineNo, argument);
+                    doTest(content, RobotFile.parse(content.c()), lineNo, argument);
                 }
             }
 
@@ -251,8 +256,7 @@ public class TestRobotContentAssistant2 {
                 }
 
                 private void doTest(Content content, ParsedString argument, int lineNo) {
-                    List<RobotLine> lines = RobotFile.parse(content.c()).getLines();
-                    doTest(content, lines, lineNo, argument);
+                    doTest(content, RobotFile.parse(content.c()), lineNo, argument);
                 }
             }
         }
@@ -285,12 +289,13 @@ public class TestRobotContentAssistant2 {
 
             private void doTest(String contentWithPointers) {
                 Content content = new Content(contentWithPointers);
-                List<RobotLine> lines = RobotFile.parse(content.c()).getLines();
+                RobotFile robotFile = RobotFile.parse(content.c());
+                List<RobotLine> lines = robotFile.getLines();
                 int lineNo = lines.size() - 1;
 
                 ParsedString argument = lines.get(lineNo).getArgumentAt(content.o("arg"));
 
-                doTest(content, lines, lineNo, argument);
+                doTest(content, robotFile, lineNo, argument);
             }
         }
     }
@@ -320,7 +325,7 @@ public class TestRobotContentAssistant2 {
         private void testWith(List<VisitorInfo> visitorInfos) {
             when(proposalSuitabilityDeterminer.generateAttemptVisitors(dummyFile, dummyArgument, dummyDocumentOffset, dummyLineCharPos)).thenReturn(visitorInfos);
 
-            assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyContent, dummyLines, dummyLineNo);
+            assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyDocument, dummyRobotFile, dummyLineNo);
 
             if (!visitorInfos.isEmpty()) {
                 ArgumentCaptor<List> proposalSetsCaptor = ArgumentCaptor.forClass(List.class);
@@ -355,7 +360,7 @@ public class TestRobotContentAssistant2 {
         @SuppressWarnings({ "unchecked", "rawtypes" })
         @Test
         public void extractMostRelevantProposals_is_called_with_same_instance_of_proposalSets_as_acceptAttempts() {
-            assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyContent, dummyLines, dummyLineNo);
+            assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyDocument, dummyRobotFile, dummyLineNo);
 
             ArgumentCaptor<List> proposalSetsCaptor = ArgumentCaptor.forClass(List.class);
             verify(attemptGenerator).acceptAttempts(any(ParsedString.class), anyInt(), proposalSetsCaptor.capture(), any(AttemptVisitor.class));
@@ -379,7 +384,7 @@ public class TestRobotContentAssistant2 {
 
         @Test
         public void test() {
-            ICompletionProposal[] actualProposals = assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyContent, dummyLines, dummyLineNo);
+            ICompletionProposal[] actualProposals = assistant.generateProposals(dummyFile, dummyDocumentOffset, dummyDocument, dummyRobotFile, dummyLineNo);
             assertSame(PROPOSALS, actualProposals);
         }
     }
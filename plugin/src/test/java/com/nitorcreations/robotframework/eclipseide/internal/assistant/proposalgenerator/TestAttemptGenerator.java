@@ -293,4 +293,50 @@ public class TestAttemptGenerator {
             }
         }
     }
+
+    public static class Multiple_attempts_at_once {
+        final AttemptGenerator generator = new AttemptGenerator();
+        final MultiAttemptVisitor attemptVisitor = mock(MultiAttemptVisitor.class, "attemptVisitor");
+        final List<RobotCompletionProposalSet> proposalSets = new ArrayList<RobotCompletionProposalSet>();
+
+        @Test
+        public void should_visit_input_attempts_once_and_keep_first_with_proposals() {
+            ParsedString argument = new ParsedString("Foo Bar", 10);
+            Region replacementRegion = new Region(10, 7);
+            RobotCompletionProposalSet set1 = new RobotCompletionProposalSet();
+            RobotCompletionProposalSet set2 = new RobotCompletionProposalSet();
+            set2.getProposals().add(new RobotCompletionProposal("Foo Baz", null, null, null, null, null, null));
+            List<String> attempts = Arrays.asList("foo bar", "foo");
+            when(attemptVisitor.visitAttempts(attempts, replacementRegion)).thenReturn(Arrays.asList(set1, set2));
+
+            generator.acceptAttempts(argument, 13, proposalSets, attemptVisitor);
+
+            verify(attemptVisitor).visitAttempts(attempts, replacementRegion);
+            verifyNoMoreInteractions(attemptVisitor);
+            assertEquals(Arrays.asList(set2), proposalSets);
+            assertThat(set2.isBasedOnInput(), is(true));
+        }
+
+        @Test
+        public void should_visit_empty_attempt_only_if_input_attempts_have_no_proposals() {
+            ParsedString argument = new ParsedString("Foo Bar", 10);
+            Region replacementRegion = new Region(10, 7);
+            RobotCompletionProposalSet set1 = new RobotCompletionProposalSet();
+            RobotCompletionProposalSet set2 = new RobotCompletionProposalSet();
+            RobotCompletionProposalSet set3 = new RobotCompletionProposalSet();
+            set3.getProposals().add(new RobotCompletionProposal("Other", null, null, null, null, null, null));
+            List<String> attempts = Arrays.asList("foo bar", "foo");
+            when(attemptVisitor.visitAttempts(attempts, replacementRegion)).thenReturn(Arrays.asList(set1, set2));
+            when(attemptVisitor.visitAttempt("", replacementRegion)).thenReturn(set3);
+
+            generator.acceptAttempts(argument, 13, proposalSets, attemptVisitor);
+
+            InOrder order = inOrder(attemptVisitor);
+            order.verify(attemptVisitor).visitAttempts(attempts, replacementRegion);
+            order.verify(attemptVisitor).visitAttempt("", replacementRegion);
+            verifyNoMoreInteractions(attemptVisitor);
+            assertEquals(Arrays.asList(set3), proposalSets);
+            assertThat(set3.isBasedOnInput(), is(false));
+        }
+    }
 }
@@ -19,6 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.Region;
 import org.junit.Test;
@@ -56,4 +59,35 @@ public class TestKeywordCallAttemptVisitor extends BaseTestAttemptVisitor {
         verifyProposal(proposalSet, 1, BUILTIN_PREFIX + BUILTIN_KEYWORD, BUILTIN_KEYWORD);
         assertFalse("Should be false always for keyword call attempts", proposalSet.isPriorityProposal());
     }
+
+    @Test
+    public void should_propose_keywords_for_each_attempt_in_one_pass() throws Exception {
+        IFile origFile = addFile("orig.txt", "*Settings\nResource  " + LINKED_FILENAME + "\n");
+        IFile linkedFile = addFile(LINKED_FILENAME, "*Keywords\n" + LINKED_KEYWORD + "\n");
+        when(resourceManager.getRelativeFile(origFile, LINKED_FILENAME)).thenReturn(linkedFile);
+
+        List<RobotCompletionProposalSet> proposalSets = new KeywordCallAttemptVisitor(origFile).visitAttempts(Arrays.asList("hello", "nothing", ""), new Region(0, 0));
+
+        assertEquals(3, proposalSets.size());
+        assertEquals(1, proposalSets.get(0).getProposals().size());
+        verifyProposal(proposalSets.get(0), 0, LINKED_PREFIX + LINKED_KEYWORD, LINKED_KEYWORD);
+        assertEquals(0, proposalSets.get(1).getProposals().size());
+        assertEquals(2, proposalSets.get(2).getProposals().size());
+    }
+
+    @Test
+    public void should_propose_only_keywords_containing_attempt_with_or_without_file_prefix() throws Exception {
+        IFile origFile = addFile("orig.txt", "*Settings\nResource  " + LINKED_FILENAME + "\n");
+        IFile linkedFile = addFile(LINKED_FILENAME, "*Keywords\n" + LINKED_KEYWORD + "\nSay Goodbye\n");
+        when(resourceManager.getRelativeFile(origFile, LINKED_FILENAME)).thenReturn(linkedFile);
+
+        List<RobotCompletionProposalSet> proposalSets = new KeywordCallAttemptVisitor(origFile).visitAttempts(Arrays.asList("linked.goodbye", "builtin.key", "word"), new Region(0, 0));
+
+        assertEquals(1, proposalSets.get(0).getProposals().size());
+        verifyProposal(proposalSets.get(0), 0, LINKED_PREFIX + "Say Goodbye", "Say Goodbye");
+        assertEquals(1, proposalSets.get(1).getProposals().size());
+        verifyProposal(proposalSets.get(1), 0, BUILTIN_PREFIX + BUILTIN_KEYWORD, BUILTIN_KEYWORD);
+        assertEquals(1, proposalSets.get(2).getProposals().size());
+        verifyProposal(proposalSets.get(2), 0, BUILTIN_PREFIX + BUILTIN_KEYWORD, BUILTIN_KEYWORD);
+    }
 }
@@ -71,6 +71,16 @@ public class TestKeywordInlineArgumentMatcher {
             m("*a*", "*a*");
         }
 
+        @Test
+        public void t12() throws Exception {
+            m("Select * from *", "select Foo from the list");
+        }
+
+        @Test
+        public void t13() throws Exception {
+            m("*", "*ab*");
+        }
+
         private void m(String a, String b) {
             Assert.assertEquals("\"" + a + "\" should wildcard-match \"" + b + "\"", KeywordMatchResult.WILDCARD, match(a, b));
             Assert.assertEquals("\"" + b + "\" should wildcard-match \"" + a + "\"", KeywordMatchResult.WILDCARD, match(b, a));
@@ -85,6 +95,21 @@ public class TestKeywordInlineArgumentMatcher {
             m("a", "b");
         }
 
+        @Test
+        public void t14() throws Exception {
+            m("a*b", "ba");
+        }
+
+        @Test
+        public void t15() throws Exception {
+            m("Select * from *", "Select Foo to list");
+        }
+
+        @Test
+        public void t16() throws Exception {
+            m("a*b", "*c");
+        }
+
         private void m(String a, String b) {
             Assert.assertEquals("\"" + a + "\" should not match \"" + b + "\"", KeywordMatchResult.DIFFERENT, match(a, b));
             Assert.assertEquals("\"" + b + "\" should not match \"" + a + "\"", KeywordMatchResult.DIFFERENT, match(b, a));
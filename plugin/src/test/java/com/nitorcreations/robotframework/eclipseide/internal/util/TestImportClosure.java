@@ -0,0 +1,113 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+import com.nitorcreations.robotframework.eclipseide.editors.IResourceManager;
+
+public class TestImportClosure {
+
+    final IProject project = mock(IProject.class, "project");
+    final IResourceManager resourceManager = mock(IResourceManager.class, "resourceManager");
+
+    IFile origFile;
+    IFile linkedFile;
+
+    @Before
+    public void setup() throws Exception {
+        PluginContext.setResourceManager(resourceManager);
+        origFile = addFile("orig.txt", "*Settings\nResource  linked.txt\nLibrary  Foo\n");
+        linkedFile = addFile("linked.txt", "*Variables\n${LINKED}  value\n");
+        when(resourceManager.getRelativeFile(origFile, "linked.txt")).thenReturn(linkedFile);
+    }
+
+    @Test
+    public void orders_files_by_priority_level() {
+        ImportClosure closure = ImportClosure.get(origFile);
+        assertEquals("[BuiltIn, orig, linked, Foo, BuiltIn]", names(closure));
+        assertEquals("[0, 1, 2, 3, 4]", closure.priorityLevels.toString());
+    }
+
+    @Test
+    public void is_cached_and_resolves_imports_once() {
+        ImportClosure closure = ImportClosure.get(origFile);
+        assertSame(closure, ImportClosure.get(origFile));
+        verify(resourceManager, times(1)).getRelativeFile(origFile, "linked.txt");
+    }
+
+    @Test
+    public void is_kept_when_a_file_changes_without_changing_its_imports() throws Exception {
+        ImportClosure closure = ImportClosure.get(origFile);
+        reparse(origFile, "*Settings\nResource  linked.txt\nLibrary  Foo\n*Keywords\nNew keyword\n");
+        assertSame(closure, ImportClosure.get(origFile));
+        verify(resourceManager, times(1)).getRelativeFile(origFile, "linked.txt");
+    }
+
+    @Test
+    public void is_dropped_when_imports_of_a_file_in_it_change() throws Exception {
+        ImportClosure closure = ImportClosure.get(origFile);
+        reparse(linkedFile, "*Settings\nLibrary  Bar\n");
+        ImportClosure newClosure = ImportClosure.get(origFile);
+        assertNotSame(closure, newClosure);
+        assertEquals("[BuiltIn, orig, linked, Foo, Bar, BuiltIn]", names(newClosure));
+    }
+
+    private void reparse(IFile file, String contents) throws Exception {
+        setContents(file, contents);
+        SymbolIndex.update(file, RobotFile.parse(file, new NullProgressMonitor()));
+    }
+
+    private IFile addFile(String fileName, String contents) throws Exception {
+        IFile file = mock(IFile.class, fileName);
+        setContents(file, contents);
+        when(file.getCharset()).thenReturn("UTF-8");
+        when(file.getProject()).thenReturn(project);
+        when(file.getName()).thenReturn(fileName);
+        when(file.exists()).thenReturn(true);
+        return file;
+    }
+
+    private static void setContents(IFile file, String contents) throws Exception {
+        when(file.getContents()).thenReturn(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+        when(file.getContents(anyBoolean())).thenReturn(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+    }
+
+    private static String names(ImportClosure closure) {
+        StringBuilder sb = new StringBuilder();
+        for (FileWithType fileWithType : closure.files) {
+            sb.append(sb.length() == 0 ? "[" : ", ").append(fileWithType.getName());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordMatchResult;
+import com.nitorcreations.robotframework.eclipseide.internal.hyperlinks.util.KeywordPattern;
+
+public class TestKeywordLookup {
+
+    private static final List<String> KEYWORDS = Arrays.asList("Open Browser", "Open ${page} Page", "Close_Browser", "${user} logs in", "Log", "Open ${page} Page");
+
+    private final KeywordLookup<String> lookup = new KeywordLookup<String>(KEYWORDS, KEYWORDS);
+
+    @Test
+    public void looks_up_literal_keywords_ignoring_case_spaces_and_underscores() {
+        assertEquals("[Open Browser]", lookup.get("open browser", "Lib").toString());
+        assertEquals("[Close_Browser]", lookup.get("Close Browser", "Lib").toString());
+        assertEquals("[]", lookup.get("Missing", "Lib").toString());
+    }
+
+    @Test
+    public void matches_keywords_with_embedded_arguments_in_file_order() {
+        assertEquals("[Open ${page} Page, Open ${page} Page]", lookup.get("Open Login Page", "Lib").toString());
+        assertEquals("[${user} logs in]", lookup.get("Admin Logs In", "Lib").toString());
+    }
+
+    @Test
+    public void looks_up_keywords_prefixed_with_file_name() {
+        assertEquals("[Log]", lookup.get("lib.Log", "Lib").toString());
+        assertEquals("[${user} logs in]", lookup.get("Lib.admin logs in", "Lib").toString());
+    }
+
+    @Test
+    public void returns_all_keywords_for_name_with_embedded_arguments() {
+        assertEquals(KEYWORDS, lookup.get("Open ${x}", "Lib"));
+    }
+
+    @Test
+    public void exposes_compiled_pattern_of_each_keyword() {
+        assertEquals(KeywordMatchResult.EXACT, lookup.getPattern(0).match(KeywordPattern.compile("open browser")));
+        assertEquals(KeywordMatchResult.WILDCARD, lookup.getPattern(1).match(KeywordPattern.compile("Open Login Page")));
+        assertEquals(KeywordMatchResult.DIFFERENT, lookup.getPattern(4).match(KeywordPattern.compile("Logs")));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.PluginContext;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotLine;
+import com.nitorcreations.robotframework.eclipseide.editors.IResourceManager;
+
+public class TestLineFinder {
+
+    final IProject project = mock(IProject.class, "project");
+    final IResourceManager resourceManager = mock(IResourceManager.class, "resourceManager");
+
+    IFile origFile;
+
+    @Before
+    public void setup() throws Exception {
+        PluginContext.setResourceManager(resourceManager);
+        origFile = addFile("orig.txt", "*Settings\nResource  linked.txt\n*Keywords\nShared\n  Log  x\nLocal\n  Log  y\n");
+        IFile linkedFile = addFile("linked.txt", "*Keywords\nShared\n  Log  z\n");
+        when(resourceManager.getRelativeFile(origFile, "linked.txt")).thenReturn(linkedFile);
+    }
+
+    /**
+     * The visitor is only passed the definitions that may match the name, so "Local" is not visited after "Shared".
+     */
+    @Test
+    public void match_in_local_file_hides_imported_definitions_when_looking_up_by_name() {
+        KeywordVisitor visitor = new KeywordVisitor("Shared");
+        LineFinder.acceptMatches(origFile, "Shared", visitor);
+        assertEquals("[orig.txt]", visitor.matchedFiles.toString());
+    }
+
+    @Test
+    public void match_in_local_file_hides_imported_definitions_even_if_not_last_in_file() {
+        KeywordVisitor visitor = new KeywordVisitor("Shared");
+        LineFinder.acceptMatches(origFile, visitor);
+        assertEquals("[orig.txt]", visitor.matchedFiles.toString());
+    }
+
+    @Test
+    public void continues_to_imported_files_without_local_match() {
+        KeywordVisitor visitor = new KeywordVisitor("Missing");
+        LineFinder.acceptMatches(origFile, visitor);
+        assertEquals("[]", visitor.matchedFiles.toString());
+        assertEquals(3, visitor.visitedCount);
+    }
+
+    static class KeywordVisitor implements LineMatchVisitor {
+        private final String name;
+        final List<String> matchedFiles = new ArrayList<String>();
+        int visitedCount;
+
+        KeywordVisitor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public VisitorInterest visitMatch(RobotLine line, FileWithType lineLocation) {
+            if (lineLocation.getFile() == null) {
+                return VisitorInterest.CONTINUE;
+            }
+            ++visitedCount;
+            if (line.arguments.get(0).getValue().equals(name)) {
+                matchedFiles.add(lineLocation.getFile().getName());
+                return VisitorInterest.CONTINUE_TO_END_OF_CURRENT_PRIORITY_LEVEL;
+            }
+            return VisitorInterest.CONTINUE;
+        }
+
+        @Override
+        public Set<LineType> getWantedLineTypes() {
+            return Collections.singleton(LineType.KEYWORD_TABLE_KEYWORD_BEGIN);
+        }
+
+        @Override
+        public boolean wantsLibraryKeywords() {
+            return false;
+        }
+
+        @Override
+        public boolean wantsLibraryVariables() {
+            return false;
+        }
+
+        @Override
+        public boolean visitImport(IFile currentFile, RobotLine line) {
+            return true;
+        }
+    }
+
+    private IFile addFile(String fileName, String contents) throws Exception {
+        IFile file = mock(IFile.class, fileName);
+        when(file.getContents()).thenReturn(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+        when(file.getContents(anyBoolean())).thenReturn(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+        when(file.getCharset()).thenReturn("UTF-8");
+        when(file.getProject()).thenReturn(project);
+        when(file.getName()).thenReturn(fileName);
+        when(file.exists()).thenReturn(true);
+        return file;
+    }
+}
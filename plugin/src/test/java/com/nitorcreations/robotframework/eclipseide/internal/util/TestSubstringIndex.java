@@ -0,0 +1,82 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestSubstringIndex {
+
+    private static final List<String> NAMES = Arrays.asList("Log", "Log Many", "Should Be Equal", "Should Not Be Equal", "Set Test Variable", "Run Keyword If", "Wait Until Keyword Succeeds", "LOG TO CONSOLE");
+
+    private final SubstringIndex index = new SubstringIndex(NAMES);
+
+    @Test
+    public void finds_names_containing_substring_ignoring_case() {
+        assertEquals("[Run Keyword If, Wait Until Keyword Succeeds]", index.filter(NAMES, Collections.singletonList("keyword")).toString());
+        assertEquals("[Log, Log Many, LOG TO CONSOLE]", index.filter(NAMES, Collections.singletonList("lo")).toString());
+        assertEquals("[]", index.filter(NAMES, Collections.singletonList("nothing")).toString());
+    }
+
+    @Test
+    public void finds_names_containing_any_substring_in_original_order() {
+        assertEquals("[Log Many, Should Not Be Equal, Run Keyword If]", index.filter(NAMES, Arrays.asList("run", "many", "not be")).toString());
+        assertEquals("[Should Be Equal, Should Not Be Equal]", index.filter(NAMES, Arrays.asList("equal", "should")).toString());
+    }
+
+    @Test
+    public void empty_substring_matches_all_names() {
+        assertSame(NAMES, index.filter(NAMES, Collections.singletonList("")));
+    }
+
+    @Test
+    public void finds_same_names_as_contains() {
+        Random random = new Random(1);
+        String chars = "abAB c_";
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < 200; ++i) {
+            names.add(randomString(random, chars, 12));
+        }
+        SubstringIndex randomIndex = new SubstringIndex(names);
+        for (int i = 0; i < 500; ++i) {
+            String substring = randomString(random, chars, 5).toLowerCase();
+            List<String> expected = new ArrayList<String>();
+            for (String name : names) {
+                if (name.toLowerCase().contains(substring)) {
+                    expected.add(name);
+                }
+            }
+            assertEquals(substring, expected, randomIndex.filter(names, Collections.singletonList(substring)));
+        }
+    }
+
+    private static String randomString(Random random, String chars, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; ++i) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return sb.toString();
+    }
+}
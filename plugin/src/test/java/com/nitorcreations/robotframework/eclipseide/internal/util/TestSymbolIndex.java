@@ -0,0 +1,79 @@
+/**
+ * Copyright 2012-2013 Nitor Creations Oy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.nitorcreations.robotframework.eclipseide.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.junit.Test;
+
+import com.nitorcreations.robotframework.eclipseide.builder.parser.LineType;
+import com.nitorcreations.robotframework.eclipseide.builder.parser.RobotFile;
+
+public class TestSymbolIndex {
+
+    private static final String CONTENTS = "*Settings\nResource  other.txt\n*Variables\n${FOO}  1\n${BAR}  2\n*Keywords\nFirst Keyword\n  Log  x\nSome ${arg} keyword\n  Log  ${arg}\nfirst_keyword\n  Log  y\nSecond keyword\n";
+
+    private final SymbolIndex.FileSymbols symbols = new SymbolIndex.FileSymbols(mock(IFile.class), RobotFile.parse(CONTENTS));
+
+    @Test
+    public void indexes_all_definitions_in_file_order() {
+        assertEquals("[First Keyword, Some ${arg} keyword, first_keyword, Second keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN)));
+        assertEquals("[${FOO}, ${BAR}]", names(symbols.getDefinitions(LineType.VARIABLE_TABLE_LINE)));
+        assertEquals(1, symbols.imports.size());
+    }
+
+    @Test
+    public void looks_up_keywords_ignoring_case_spaces_and_underscores() {
+        assertEquals("[First Keyword, first_keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "FIRSTKEYWORD", "file")));
+        assertEquals("[Second keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "second keyword", "file")));
+    }
+
+    @Test
+    public void looks_up_keywords_prefixed_with_file_name() {
+        assertEquals("[Second keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "File.Second keyword", "file")));
+    }
+
+    @Test
+    public void looks_up_keywords_with_embedded_arguments_by_pattern() {
+        assertEquals("[Some ${arg} keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "some other keyword", "file")));
+        assertEquals("[Some ${arg} keyword]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "file.Some second keyword", "file")));
+        assertEquals("[]", names(symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "Some keyword", "file")));
+    }
+
+    @Test
+    public void returns_all_keywords_for_name_with_embedded_arguments() {
+        assertEquals(4, symbols.getDefinitions(LineType.KEYWORD_TABLE_KEYWORD_BEGIN, "First ${x}", "file").size());
+    }
+
+    @Test
+    public void looks_up_variables() {
+        assertEquals("[${BAR}]", names(symbols.getDefinitions(LineType.VARIABLE_TABLE_LINE, "${bar}", "file")));
+        assertEquals("[]", names(symbols.getDefinitions(LineType.VARIABLE_TABLE_LINE, "${baz}", "file")));
+    }
+
+    private static String names(List<SymbolIndex.Symbol> symbols) {
+        List<String> names = new ArrayList<String>();
+        for (SymbolIndex.Symbol symbol : symbols) {
+            names.add(symbol.getName().getValue());
+        }
+        return names.toString();
+    }
+}